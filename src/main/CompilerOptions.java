@@ -0,0 +1,94 @@
+package main;
+
+import main.visitor.optimizer.PassManager;
+
+public class CompilerOptions {
+    private String sourceFile;
+    private boolean directBytecode = false;
+    private boolean inProcess = false;
+    private boolean peepholeStatistics = false;
+    private boolean passStatistics = false;
+    private int optimizationLevel = PassManager.DEFAULT_LEVEL;
+
+    public static CompilerOptions parse(String[] args) {
+        CompilerOptions options = new CompilerOptions();
+        for(String arg : args) {
+            if(arg.equals("--backend=bytecode"))
+                options.directBytecode = true;
+            else if(arg.equals("--backend=jasmin"))
+                options.directBytecode = false;
+            else if(arg.equals("--run=in-process"))
+                options.inProcess = true;
+            else if(arg.equals("--run=process"))
+                options.inProcess = false;
+            else if(arg.equals("--peephole-stats"))
+                options.peepholeStatistics = true;
+            else if(arg.equals("--pass-stats"))
+                options.passStatistics = true;
+            else if(arg.matches("-O[0-9]+"))
+                options.optimizationLevel = optimizationLevel(arg);
+            else if(arg.startsWith("-"))
+                throw new IllegalArgumentException("Unknown option " + arg);
+            else
+                options.sourceFile = arg;
+        }
+        if(options.sourceFile == null)
+            throw new IllegalArgumentException("Usage: Sophia <file.sop> [--backend=jasmin|bytecode] [--run=process|in-process] [-O0 (default)|-O1|-O2] [--peephole-stats] [--pass-stats]");
+        return options;
+    }
+
+    private static int optimizationLevel(String arg) {
+        int level = Integer.parseInt(arg.substring(2));
+        if(level > PassManager.MAX_LEVEL)
+            throw new IllegalArgumentException("Unknown option " + arg);
+        return level;
+    }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public boolean isDirectBytecode() {
+        return directBytecode;
+    }
+
+    public void setDirectBytecode(boolean directBytecode) {
+        this.directBytecode = directBytecode;
+    }
+
+    public boolean isInProcess() {
+        return inProcess;
+    }
+
+    public void setInProcess(boolean inProcess) {
+        this.inProcess = inProcess;
+    }
+
+    public boolean isPeepholeStatistics() {
+        return peepholeStatistics;
+    }
+
+    public void setPeepholeStatistics(boolean peepholeStatistics) {
+        this.peepholeStatistics = peepholeStatistics;
+    }
+
+    public boolean isPassStatistics() {
+        return passStatistics;
+    }
+
+    public void setPassStatistics(boolean passStatistics) {
+        this.passStatistics = passStatistics;
+    }
+
+    public int getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    public void setOptimizationLevel(int optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+}
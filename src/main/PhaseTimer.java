@@ -0,0 +1,59 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// wall time and bytes allocated by the current thread between consecutive laps
+// allocated bytes are -1 when the jvm can not count allocations per thread
+public class PhaseTimer {
+    private static final com.sun.management.ThreadMXBean allocationCounter = allocationCounter();
+
+    private long startNanos;
+    private long startAllocatedBytes;
+    private long nanos;
+    private long allocatedBytes;
+
+    public PhaseTimer() {
+        this.startNanos = System.nanoTime();
+        this.startAllocatedBytes = currentAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if(!(threadMXBean instanceof com.sun.management.ThreadMXBean))
+            return null;
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threadMXBean;
+        try {
+            if(!counter.isThreadAllocatedMemorySupported())
+                return null;
+            counter.setThreadAllocatedMemoryEnabled(true);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+        return counter;
+    }
+
+    private static long currentAllocatedBytes() {
+        if(allocationCounter == null)
+            return -1;
+        return allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // ends the current lap and starts the next one
+    public void lap() {
+        long now = System.nanoTime();
+        long allocatedNow = currentAllocatedBytes();
+        this.nanos = now - startNanos;
+        this.allocatedBytes = allocatedNow < 0 ? -1 : allocatedNow - startAllocatedBytes;
+        this.startNanos = now;
+        this.startAllocatedBytes = allocatedNow;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
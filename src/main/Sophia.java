@@ -7,8 +7,16 @@ import java.io.IOException;
 
 public class Sophia {
     public static void main(String[] args) throws IOException {
-        CharStream reader = CharStreams.fromFileName(args[0]);
-        SophiaCompiler sophiaCompiler = new SophiaCompiler();
+        CompilerOptions options;
+        try {
+            options = CompilerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        CharStream reader = CharStreams.fromFileName(options.getSourceFile());
+        SophiaCompiler sophiaCompiler = new SophiaCompiler(options);
         sophiaCompiler.compile(reader);
     }
 }
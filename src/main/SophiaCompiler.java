@@ -1,68 +1,212 @@
 package main;
 
+import main.assembler.AssembledClass;
+import main.assembler.AssemblerException;
+import main.assembler.JasminAssembler;
 import main.ast.nodes.Program;
+import main.jfr.CompilerPhaseEvent;
+import main.runner.InProcessRunner;
+import main.runner.ProgramOutput;
 import main.visitor.codeGenerator.CodeGenerator;
+import main.visitor.codeGenerator.backend.BytecodeBackend;
 import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.optimizer.DeadCodeEliminator;
+import main.visitor.optimizer.PassManager;
+import main.visitor.optimizer.PassStatistics;
 import main.visitor.typeChecker.TypeChecker;
 import main.visitor.utils.ASTTreePrinter;
 import main.visitor.utils.ErrorReporter;
+import main.visitor.utils.NodeCounter;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import parsers.SophiaLexer;
 import parsers.SophiaParser;
 
 import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class SophiaCompiler {
+    private CompilerOptions options;
+    private Map<String, byte[]> directClasses = new LinkedHashMap<>();
+    private PhaseTimer phaseTimer;
+    private int programNodeCount = -1;
+
+    public SophiaCompiler() {
+        this(new CompilerOptions());
+    }
+
+    public SophiaCompiler(CompilerOptions options) {
+        this.options = options;
+    }
+
     public void compile(CharStream textStream) {
         System.out.println("\n--------------------------Compiling--------------------------");
+        CompilerPhaseEvent parsing = startPhase("parse");
         SophiaLexer sophiaLexer = new SophiaLexer(textStream);
         CommonTokenStream tokenStream = new CommonTokenStream(sophiaLexer);
         SophiaParser sophiaParser = new SophiaParser(tokenStream);
         Program program = sophiaParser.sophia().sophiaProgram;
+        endPhase(parsing, program, 0);
         ErrorReporter errorReporter = new ErrorReporter();
+        CompilerPhaseEvent nameAnalysis = startPhase("name analysis");
         NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
         nameAnalyzer.analyze();
+        endPhase(nameAnalysis, program, 0);
+        CompilerPhaseEvent nameErrorReporting = startPhase("error reporting (names)");
         int numberOfErrors = program.accept(errorReporter);
+        endPhase(nameErrorReporting, program, numberOfErrors);
         if(numberOfErrors > 0) {
             System.out.println("\n" + numberOfErrors + " errors detected");
             System.exit(1);
         }
 //        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
 //        program.accept(astTreePrinter);
+        CompilerPhaseEvent typeChecking = startPhase("type checking");
         TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy());
         program.accept(typeChecker);
+        endPhase(typeChecking, program, 0);
+        CompilerPhaseEvent typeErrorReporting = startPhase("error reporting (types)");
         numberOfErrors = program.accept(errorReporter);
+        endPhase(typeErrorReporting, program, numberOfErrors);
         if(numberOfErrors > 0) {
             System.out.println("\n" + numberOfErrors + " errors detected");
             System.exit(1);
         }
-        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy());
+        CompilerPhaseEvent optimization = startPhase("optimization");
+        PassManager passManager = PassManager.withDefaultPasses(options.getOptimizationLevel());
+        passManager.run(program);
+        // the passes rewrite the tree, later phases count it again
+        this.programNodeCount = -1;
+        endPhase(optimization, program, 0);
+        CompilerPhaseEvent codeGeneration = startPhase("code generation");
+        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy(), options.isDirectBytecode());
+        passManager.configure(codeGenerator);
+        codeGenerator.setMeasureDroppedCode(options.isPassStatistics() && passManager.isEnabled(DeadCodeEliminator.NAME));
         program.accept(codeGenerator);
+        passManager.collectCodeGenerationStatistics();
+        numberOfErrors = program.accept(errorReporter);
+        if(codeGenerator.getBackend() instanceof BytecodeBackend) {
+            BytecodeBackend bytecodeBackend = (BytecodeBackend) codeGenerator.getBackend();
+            this.directClasses = bytecodeBackend.getClasses();
+            numberOfErrors += bytecodeBackend.getNumberOfErrors();
+        }
+        endPhase(codeGeneration, program, numberOfErrors);
+        if(numberOfErrors > 0) {
+            System.out.println("\n" + numberOfErrors + " errors detected");
+            System.exit(1);
+        }
         System.out.println("Compilation successful");
+        if(options.isPeepholeStatistics() && codeGenerator.getPeepholeOptimizer() != null)
+            printPeepholeStatistics(codeGenerator);
+        if(options.isPassStatistics())
+            printPassStatistics(passManager, codeGenerator);
         runJasminFiles();
     }
 
+    private void printPeepholeStatistics(CodeGenerator codeGenerator) {
+        System.out.println("\n----------------------Peephole Rules------------------------");
+        for (Map.Entry<String, Integer> counter : codeGenerator.getPeepholeOptimizer().getCounters().entrySet())
+            System.out.printf("%-40s %8d%n", counter.getKey(), counter.getValue());
+    }
+
+    private void printPassStatistics(PassManager passManager, CodeGenerator codeGenerator) {
+        System.out.println("\n-------------------Optimization Passes (-O" + passManager.getLevel() + ")-------------------");
+        System.out.printf("%-28s %12s %10s%n", "pass", "time (us)", "changes");
+        for (PassStatistics pass : passManager.getStatistics())
+            System.out.printf("%-28s %12.1f %10d%n", pass.getName(), pass.getNanos() / 1e3, pass.getChanges());
+        for (PassStatistics pass : passManager.getStatistics()) {
+            if(pass.getDecisions().isEmpty())
+                continue;
+            System.out.println("\n" + pass.getName() + ":");
+            for (String decision : pass.getDecisions())
+                System.out.println("  " + decision);
+        }
+        if(passManager.isEnabled(DeadCodeEliminator.NAME))
+            System.out.println("\ndropped code would have taken " + codeGenerator.getDroppedBytes() + " bytes of class files");
+    }
+
+    // phases are reported as jfr events, counting nodes only when the event is recorded; the timer is always started,
+    // as a recording may start while the phase runs
+    private CompilerPhaseEvent startPhase(String phase) {
+        CompilerPhaseEvent event = new CompilerPhaseEvent();
+        event.phase = phase;
+        this.phaseTimer = new PhaseTimer();
+        event.begin();
+        return event;
+    }
+
+    private void endPhase(CompilerPhaseEvent event, Program program, int numberOfErrors) {
+        event.end();
+        if(!event.shouldCommit())
+            return;
+        this.phaseTimer.lap();
+        event.allocatedBytes = this.phaseTimer.getAllocatedBytes();
+        event.numberOfErrors = numberOfErrors;
+        if(program != null) {
+            if(this.programNodeCount < 0) {
+                NodeCounter nodeCounter = new NodeCounter();
+                program.accept(nodeCounter);
+                this.programNodeCount = nodeCounter.getCount();
+            }
+            event.nodeCount = this.programNodeCount;
+        }
+        event.commit();
+    }
+
     private void runJasminFiles() {
         try {
             System.out.println("\n-------------------Generating Class Files-------------------");
             File dir = new File("./output");
-//            Process process = Runtime.getRuntime().exec("java -jar jasmin.jar *.j", null, dir);
-            Process process = Runtime.getRuntime().exec(new String[]{"bash", "-c", "java -jar jasmin.jar *.j"}, null, dir);
-
-            printResults(process.getInputStream());
-            printResults(process.getErrorStream());
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            CompilerPhaseEvent assembly = startPhase("assembly");
+            boolean assembled = assembleJasminFiles(dir, classes);
+            endPhase(assembly, null, assembled ? 0 : 1);
+            if(!assembled)
+                return;
             System.out.println("\n---------------------------Output---------------------------");
-            process = Runtime.getRuntime().exec("java Main", null, dir);
-            printResults(process.getInputStream());
-            printResults(process.getErrorStream());
-        } catch (IOException e) {
+            if(options.isInProcess()) {
+                ProgramOutput output = new InProcessRunner().run(classes, "Main");
+                printResults(new StringReader(output.getStandardOutput()));
+                printResults(new StringReader(output.getStandardError()));
+                return;
+            }
+            Process process = Runtime.getRuntime().exec("java Main", null, dir);
+            printResults(new InputStreamReader(process.getInputStream()));
+            printResults(new InputStreamReader(process.getErrorStream()));
+        } catch (IOException | InterruptedException e) {
             e.printStackTrace();
         }
     }
 
-    private void printResults(InputStream stream) {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+    private boolean assembleJasminFiles(File dir, Map<String, byte[]> classes) {
+        JasminAssembler jasminAssembler;
+        try {
+            jasminAssembler = new JasminAssembler("utilities/jarFiles/jasmin.jar");
+        } catch (AssemblerException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+        boolean successful = true;
+        for(AssembledClass assembledClass : jasminAssembler.assembleDirectory(dir)) {
+            if(assembledClass.hasError()) {
+                for(String error : assembledClass.getErrors())
+                    System.out.println(error);
+                successful = false;
+            }
+            else {
+                System.out.println("Generated: " + assembledClass.getClassName() + ".class");
+                classes.put(assembledClass.getClassName(), assembledClass.getBytes());
+            }
+        }
+        for(String className : directClasses.keySet())
+            System.out.println("Generated: " + className + ".class");
+        classes.putAll(directClasses);
+        return successful;
+    }
+
+    private void printResults(Reader results) {
+        BufferedReader reader = new BufferedReader(results);
         String line;
         try {
             while ((line = reader.readLine()) != null)
@@ -0,0 +1,46 @@
+package main.assembler;
+
+import java.util.ArrayList;
+
+public class AssembledClass {
+    private String sourceName;
+    private String className;
+    private byte[] bytes;
+    private ArrayList<String> errors = new ArrayList<>();
+
+    public AssembledClass(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public ArrayList<String> getErrors() {
+        return errors;
+    }
+
+    public void addError(String error) {
+        this.errors.add(error);
+    }
+
+    public boolean hasError() {
+        return this.errors.size() != 0;
+    }
+}
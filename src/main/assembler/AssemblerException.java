@@ -0,0 +1,9 @@
+package main.assembler;
+
+public class AssemblerException extends Exception {
+
+    public AssemblerException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,149 @@
+package main.assembler;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// assembles .j files inside the compiler JVM using the classes of jasmin.jar
+// jasmin keeps the state of its scanner in static fields, so every thread assembles with its own copy of the classes,
+// loaded by a class loader of its own
+public class JasminAssembler {
+    private final URL jasminJar;
+    private final ThreadLocal<Jasmin> jasmins = new ThreadLocal<>();
+    private final int numberOfThreads;
+
+    public JasminAssembler(String jasminJarPath) throws AssemblerException {
+        this(jasminJarPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public JasminAssembler(String jasminJarPath, int numberOfThreads) throws AssemblerException {
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+        try {
+            this.jasminJar = new File(jasminJarPath).toURI().toURL();
+            jasmins.set(new Jasmin(jasminJar));
+        } catch (MalformedURLException | ReflectiveOperationException e) {
+            throw new AssemblerException("cannot load jasmin from " + jasminJarPath + ": " + e);
+        }
+    }
+
+    private Jasmin jasmin() throws ReflectiveOperationException {
+        Jasmin jasmin = jasmins.get();
+        if(jasmin == null) {
+            jasmin = new Jasmin(jasminJar);
+            jasmins.set(jasmin);
+        }
+        return jasmin;
+    }
+
+    public AssembledClass assemble(String sourceName, Reader source) {
+        AssembledClass assembledClass = new AssembledClass(sourceName);
+        try {
+            Jasmin jasmin = jasmin();
+            Object classFile = jasmin.classFileClass.getConstructor().newInstance();
+            jasmin.readJasmin.invoke(classFile, source, sourceName, false);
+            int numberOfErrors = (Integer) jasmin.errorCount.invoke(classFile);
+            if(numberOfErrors > 0) {
+                assembledClass.addError(sourceName + ": Found " + numberOfErrors + " errors");
+                return assembledClass;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            jasmin.write.invoke(classFile, bytes);
+            assembledClass.setClassName((String) jasmin.getClassName.invoke(classFile));
+            assembledClass.setBytes(bytes.toByteArray());
+        } catch (InvocationTargetException e) {
+            assembledClass.addError(sourceName + ": " + e.getCause());
+        } catch (ReflectiveOperationException e) {
+            assembledClass.addError(sourceName + ": " + e);
+        }
+        return assembledClass;
+    }
+
+    public AssembledClass assemble(File jasminFile) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(jasminFile), StandardCharsets.UTF_8))) {
+            return assemble(jasminFile.getName(), reader);
+        } catch (IOException e) {
+            AssembledClass assembledClass = new AssembledClass(jasminFile.getName());
+            assembledClass.addError(jasminFile.getName() + ": " + e);
+            return assembledClass;
+        }
+    }
+
+    // assembles every .j file of the directory in parallel and writes the class files next to them
+    public ArrayList<AssembledClass> assembleDirectory(File directory) {
+        File[] jasminFiles = directory.listFiles((dir, name) -> name.endsWith(".j"));
+        ArrayList<AssembledClass> assembledClasses = new ArrayList<>();
+        if(jasminFiles == null)
+            return assembledClasses;
+        Arrays.sort(jasminFiles);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, Math.max(1, jasminFiles.length)));
+        try {
+            ArrayList<Future<AssembledClass>> futures = new ArrayList<>();
+            for(File jasminFile : jasminFiles) {
+                futures.add(executor.submit(() -> {
+                    AssembledClass assembledClass = assemble(jasminFile);
+                    writeClassFile(directory, assembledClass);
+                    return assembledClass;
+                }));
+            }
+            for(int i = 0; i < futures.size(); i++) {
+                try {
+                    assembledClasses.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    AssembledClass assembledClass = new AssembledClass(jasminFiles[i].getName());
+                    assembledClass.addError(jasminFiles[i].getName() + ": " + e.getCause());
+                    assembledClasses.add(assembledClass);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return assembledClasses;
+    }
+
+    public static void writeClassFile(File directory, AssembledClass assembledClass) {
+        if(assembledClass.hasError())
+            return;
+        File classFile = new File(directory, assembledClass.getClassName() + ".class");
+        try {
+            File parent = classFile.getParentFile();
+            if(parent != null)
+                parent.mkdirs();
+            Files.write(classFile.toPath(), assembledClass.getBytes());
+        } catch (IOException e) {
+            assembledClass.addError(assembledClass.getSourceName() + ": " + e);
+        }
+    }
+
+    // the jasmin.ClassFile methods of one copy of jasmin
+    private static class Jasmin {
+        private final Class<?> classFileClass;
+        private final Method readJasmin;
+        private final Method errorCount;
+        private final Method getClassName;
+        private final Method write;
+
+        private Jasmin(URL jasminJar) throws ReflectiveOperationException {
+            // no parent but the boot class loader, which would hand out a shared copy of jasmin were it on the class path
+            ClassLoader jasminClassLoader = new URLClassLoader(new URL[]{jasminJar}, null);
+            this.classFileClass = Class.forName("jasmin.ClassFile", true, jasminClassLoader);
+            this.readJasmin = classFileClass.getMethod("readJasmin", Reader.class, String.class, boolean.class);
+            this.errorCount = classFileClass.getMethod("errorCount");
+            this.getClassName = classFileClass.getMethod("getClassName");
+            this.write = classFileClass.getMethod("write", OutputStream.class);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package main.assembler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// assembles classes with string constants longer than the 512 characters jasmin starts its scanner buffer with on many
+// threads at once and checks that every class file comes out as it does when assembled alone
+// usage: java main.assembler.ParallelAssemblyTest [jasmin jar] [rounds]
+public class ParallelAssemblyTest {
+    private static final int FILES = 16;
+    private static final int THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        String jasminJarPath = args.length > 0 ? args[0] : "utilities/jarFiles/jasmin.jar";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        File directory = Files.createTempDirectory("parallelAssembly").toFile();
+        try {
+            for(int i = 0; i < FILES; i++)
+                Files.write(new File(directory, "Strings" + i + ".j").toPath(), jasminSource(i).getBytes(StandardCharsets.UTF_8));
+
+            JasminAssembler alone = new JasminAssembler(jasminJarPath, 1);
+            ArrayList<AssembledClass> expected = alone.assembleDirectory(directory);
+            check(expected, null);
+            JasminAssembler parallel = new JasminAssembler(jasminJarPath, THREADS);
+            for(int round = 0; round < rounds; round++)
+                check(parallel.assembleDirectory(directory), expected);
+            System.out.println("ok: " + rounds + " rounds of " + FILES + " files on " + THREADS + " threads");
+        } finally {
+            File[] files = directory.listFiles();
+            if(files != null) {
+                for(File file : files)
+                    file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static void check(ArrayList<AssembledClass> assembledClasses, ArrayList<AssembledClass> expected) {
+        if(assembledClasses.size() != FILES)
+            throw new AssertionError("assembled " + assembledClasses.size() + " of " + FILES + " files");
+        for(int i = 0; i < FILES; i++) {
+            AssembledClass assembledClass = assembledClasses.get(i);
+            if(assembledClass.hasError())
+                throw new AssertionError(assembledClass.getErrors());
+            if(expected != null && !Arrays.equals(assembledClass.getBytes(), expected.get(i).getBytes()))
+                throw new AssertionError(assembledClass.getSourceName() + ": differs from the class file assembled alone");
+        }
+    }
+
+    // string constants from 600 to several thousand characters, enough to grow the scanner buffer a few times
+    private static String jasminSource(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append(".class public Strings").append(index).append("\n.super java/lang/Object\n\n");
+        source.append(".method public static strings()V\n.limit stack 1\n.limit locals 0\n");
+        for(int length = 600; length <= 600 + 900 * (index % 8); length += 900) {
+            StringBuilder constant = new StringBuilder();
+            for(int i = 0; i < length; i++)
+                constant.append((char) ('a' + (i + index) % 26));
+            source.append("ldc \"").append(constant).append("\"\npop\n");
+        }
+        source.append("return\n.end method\n");
+        return source.toString();
+    }
+
+}
@@ -16,6 +16,10 @@ public class ClassDeclaration extends Declaration {
     private ArrayList<FieldDeclaration> fields = new ArrayList<>();
     private ConstructorDeclaration constructor;
     private ArrayList<MethodDeclaration> methods = new ArrayList<>();
+    //set by ClassHierarchyAnalysis when no class of the program extends it
+    private boolean isFinal = false;
+    //cleared by DeadCodeEliminator when no reachable code instantiates the class or names it in a type
+    private boolean isReachable = true;
 
     public ClassDeclaration(Identifier className) {
         this.className = className;
@@ -61,6 +65,22 @@ public class ClassDeclaration extends Declaration {
         this.fields = fields;
     }
 
+    public boolean getIsFinal() {
+        return isFinal;
+    }
+
+    public void setIsFinal(boolean isFinal) {
+        this.isFinal = isFinal;
+    }
+
+    public boolean getIsReachable() {
+        return isReachable;
+    }
+
+    public void setIsReachable(boolean isReachable) {
+        this.isReachable = isReachable;
+    }
+
     public void addMethod(MethodDeclaration methodDeclaration) {
         this.methods.add(methodDeclaration);
     }
@@ -18,6 +18,10 @@ public class MethodDeclaration extends Declaration {
     protected ArrayList<Statement> body = new ArrayList<>();
     //don't need this until code generation
     protected boolean doesReturn = false;
+    //set by ClassHierarchyAnalysis when no subclass redefines the method
+    protected boolean isFinal = false;
+    //cleared by DeadCodeEliminator when no reachable code calls or references the method
+    protected boolean isReachable = true;
 
     //returnType NullType on when it is Void
     public MethodDeclaration(Identifier methodName, Type returnType) {
@@ -85,6 +89,22 @@ public class MethodDeclaration extends Declaration {
         this.doesReturn = doesReturn;
     }
 
+    public boolean getIsFinal() {
+        return isFinal;
+    }
+
+    public void setIsFinal(boolean isFinal) {
+        this.isFinal = isFinal;
+    }
+
+    public boolean getIsReachable() {
+        return isReachable;
+    }
+
+    public void setIsReachable(boolean isReachable) {
+        this.isReachable = isReachable;
+    }
+
     @Override
     public String toString() {
         return "MethodDeclaration_" + this.methodName.getName();
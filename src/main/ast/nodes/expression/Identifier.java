@@ -1,10 +1,13 @@
 package main.ast.nodes.expression;
 
+import main.symbolTable.items.SymbolTableItem;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class Identifier extends Expression{
     private String name;
+    //resolved local variable, set by NameBinder
+    private SymbolTableItem symbolTableItem;
 
     public Identifier(String name) {
         this.name = name;
@@ -18,6 +21,14 @@ public class Identifier extends Expression{
         this.name = name;
     }
 
+    public SymbolTableItem getSymbolTableItem() {
+        return symbolTableItem;
+    }
+
+    public void setSymbolTableItem(SymbolTableItem symbolTableItem) {
+        this.symbolTableItem = symbolTableItem;
+    }
+
     @Override
     public String toString() {
         return "Identifier_" + this.name;
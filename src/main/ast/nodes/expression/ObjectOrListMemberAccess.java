@@ -1,11 +1,14 @@
 package main.ast.nodes.expression;
 
+import main.symbolTable.items.SymbolTableItem;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class ObjectOrListMemberAccess extends Expression{
     private Expression instance;
     private Identifier memberName;
+    //resolved symbol, set by NameBinder or ExpressionTypeChecker
+    private SymbolTableItem symbolTableItem;
 
     public ObjectOrListMemberAccess(Expression instance, Identifier memberName) {
         this.instance = instance;
@@ -28,6 +31,14 @@ public class ObjectOrListMemberAccess extends Expression{
         this.memberName = memberName;
     }
 
+    public SymbolTableItem getSymbolTableItem() {
+        return symbolTableItem;
+    }
+
+    public void setSymbolTableItem(SymbolTableItem symbolTableItem) {
+        this.symbolTableItem = symbolTableItem;
+    }
+
     @Override
     public String toString() {
         return "ObjectOrListMemberAccess_" + this.memberName.getName();
@@ -0,0 +1,98 @@
+package main.benchmark;
+
+import main.ast.nodes.Program;
+import main.visitor.codeGenerator.CodeGenerator;
+import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.typeChecker.TypeChecker;
+import main.visitor.utils.ErrorReporter;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.SophiaLexer;
+import parsers.SophiaParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// times type checking and code generation of nested calls of doubling depth, the phases that used to type every
+// subtree again for each node around it; with the types cached on the nodes the type checking time per nesting level
+// stays flat and doubles with the depth; code generation still copies the commands of every subexpression into the
+// string of the one around it, which shows as growth above 2 at large depths
+// usage: java main.benchmark.ExpressionNestingBenchmark [--rounds=N] [depth]...
+public class ExpressionNestingBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+
+    private int rounds = 10;
+    private long typeCheckingNanos;
+    private long codeGenerationNanos;
+    // commands generated by the last round, printed so code generation can not be optimized away
+    private int commands;
+
+    public static void main(String[] args) throws InterruptedException {
+        // deep nesting recurses deeply in the parser and in every visitor
+        Thread thread = new Thread(null, () -> runAll(args), "benchmark", 1L << 30);
+        thread.start();
+        thread.join();
+    }
+
+    private static void runAll(String[] args) {
+        ExpressionNestingBenchmark benchmark = new ExpressionNestingBenchmark();
+        ArrayList<Integer> depths = new ArrayList<>();
+        for (String arg : args) {
+            if(arg.startsWith("--rounds="))
+                benchmark.rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            else
+                depths.add(Integer.parseInt(arg));
+        }
+        if(depths.isEmpty())
+            depths.addAll(Arrays.asList(250, 500, 1000, 2000, 4000));
+        System.out.printf("%8s %12s %14s %8s %14s %8s %10s%n", "depth", "types us", "types ns/level", "growth",
+                "codegen us", "growth", "commands");
+        double previousTypes = Double.NaN;
+        double previousCodeGeneration = Double.NaN;
+        for (int depth : depths) {
+            benchmark.measure(SophiaProgramGenerator.nestedCalls(depth));
+            double types = benchmark.typeCheckingNanos;
+            double codeGeneration = benchmark.codeGenerationNanos;
+            System.out.printf("%8d %12.1f %14.1f %8.2f %14.1f %8.2f %10d%n", depth, types / 1e3, types / depth,
+                    types / previousTypes, codeGeneration / 1e3, codeGeneration / previousCodeGeneration, benchmark.commands);
+            previousTypes = types;
+            previousCodeGeneration = codeGeneration;
+        }
+    }
+
+    // the best round of each phase
+    private void measure(String source) {
+        typeCheckingNanos = Long.MAX_VALUE;
+        codeGenerationNanos = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+            Program program = parse(source);
+            NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
+            nameAnalyzer.analyze();
+
+            long start = System.nanoTime();
+            program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+            long typed = System.nanoTime();
+            if(program.accept(new ErrorReporter()) > 0)
+                throw new IllegalArgumentException("benchmarked program has compile errors");
+            long checked = System.nanoTime();
+            int[] generated = {0};
+            CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy(),
+                    (className, classCommands) -> generated[0] += classCommands.size());
+            program.accept(codeGenerator);
+            long end = System.nanoTime();
+
+            if(round < WARMUP_ROUNDS)
+                continue;
+            typeCheckingNanos = Math.min(typeCheckingNanos, typed - start);
+            codeGenerationNanos = Math.min(codeGenerationNanos, end - checked);
+            commands = generated[0];
+        }
+    }
+
+    private static Program parse(String source) {
+        SophiaLexer sophiaLexer = new SophiaLexer(CharStreams.fromString(source));
+        SophiaParser sophiaParser = new SophiaParser(new CommonTokenStream(sophiaLexer));
+        return sophiaParser.sophia().sophiaProgram;
+    }
+
+}
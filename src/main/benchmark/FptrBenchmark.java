@@ -0,0 +1,111 @@
+package main.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+
+// compares the two ways the Fptr runtime class has called its method: a reflective lookup from the runtime argument classes
+// on every call, and a method handle resolved once from the declared descriptor and called through a fixed arity entry point
+// the runtime class lives in the default package of the generated program, so both strategies are reproduced here
+// usage: java main.benchmark.FptrBenchmark [calls]
+public class FptrBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws Throwable {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Target target = new Target();
+        ReflectiveFptr reflective = new ReflectiveFptr(target, "add$boxed");
+        HandleFptr handle = new HandleFptr(target, "add", "(II)I");
+        System.out.printf("%-28s %12s%n", "strategy", "ns/call");
+        System.out.printf("%-28s %12.1f%n", "reflective lookup per call", reflectiveNanosPerCall(reflective, calls));
+        System.out.printf("%-28s %12.1f%n", "cached method handle", handleNanosPerCall(handle, calls));
+    }
+
+    private static double reflectiveNanosPerCall(ReflectiveFptr fptr, int calls) throws Exception {
+        long best = Long.MAX_VALUE;
+        int sum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                // generated code used to build a fresh argument list for every call
+                ArrayList<Object> arguments = new ArrayList<>();
+                arguments.add(i);
+                arguments.add(sum);
+                sum = (Integer) fptr.invoke(arguments) & 1023;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS)
+                best = Math.min(best, elapsed);
+        }
+        if (sum == 4242)
+            System.out.print("");
+        return (double) best / calls;
+    }
+
+    private static double handleNanosPerCall(HandleFptr fptr, int calls) throws Throwable {
+        long best = Long.MAX_VALUE;
+        int sum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++)
+                sum = (Integer) fptr.invoke2(i, sum) & 1023;
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS)
+                best = Math.min(best, elapsed);
+        }
+        if (sum == 4242)
+            System.out.print("");
+        return (double) best / calls;
+    }
+
+    public static class Target {
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        // the boxing adapter the code generator emitted for methods with a primitive signature
+        public Integer add$boxed(Integer a, Integer b) {
+            return add(a, b);
+        }
+    }
+
+    private static class ReflectiveFptr {
+        private final Object instance;
+        private final String methodName;
+
+        ReflectiveFptr(Object instance, String methodName) {
+            this.instance = instance;
+            this.methodName = methodName;
+        }
+
+        Object invoke(ArrayList<Object> arguments) throws Exception {
+            int argumentsSize = arguments.size();
+            Class<?>[] argsClasses = new Class<?>[argumentsSize];
+            Object[] argsArray = new Object[argumentsSize];
+            for (int i = 0; i < argumentsSize; i++) {
+                argsClasses[i] = arguments.get(i).getClass();
+                argsArray[i] = arguments.get(i);
+            }
+            Method objectMethod = this.instance.getClass().getMethod(this.methodName, argsClasses);
+            return objectMethod.invoke(this.instance, argsArray);
+        }
+    }
+
+    private static class HandleFptr {
+        private final MethodHandle target;
+
+        HandleFptr(Object instance, String methodName, String descriptor) throws ReflectiveOperationException {
+            MethodType methodType = MethodType.fromMethodDescriptorString(descriptor, instance.getClass().getClassLoader());
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(instance.getClass(), methodName, methodType);
+            this.target = handle.bindTo(instance).asType(methodType.generic());
+        }
+
+        Object invoke2(Object a, Object b) throws Throwable {
+            return target.invokeExact(a, b);
+        }
+    }
+
+}
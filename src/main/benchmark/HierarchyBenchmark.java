@@ -0,0 +1,100 @@
+package main.benchmark;
+
+import main.symbolTable.utils.graph.Graph;
+import main.symbolTable.utils.graph.exceptions.GraphDoesNotContainNodeException;
+import main.symbolTable.utils.graph.exceptions.NodeAlreadyExistsException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// compares subtype queries on the plain parentship graph against the frozen ancestor index
+// usage: java main.benchmark.HierarchyBenchmark [queries]
+public class HierarchyBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    // the graph walk is linear in the depth of the hierarchy, so it only gets a prefix of the queries
+    private static final int DFS_QUERIES = 5000;
+    // ancestor pairs found by the last measured queries, printed so the queries can not be optimized away
+    private static int ancestorPairs;
+
+    public static void main(String[] args) throws Exception {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        System.out.printf("%-28s %10s %14s %14s %10s %10s%n", "hierarchy", "classes", "dfs ns/query", "index ns/query", "build ms",
+                "ancestors");
+        run("random tree", randomTree(5000, 1), 5000, queries);
+        run("random tree", randomTree(20000, 2), 20000, queries);
+        run("chain", chains(2000, 1), 2000, queries);
+        run("chains 10 x 500", chains(500, 10), 5000, queries);
+        run("chains 4 x 3000", chains(3000, 4), 12000, queries);
+    }
+
+    private static void run(String name, Graph<String> graph, int classCount, int queries) {
+        String[][] pairs = randomPairs(classCount, queries);
+        String dfs;
+        try {
+            dfs = String.format("%14.1f", nanosPerQuery(graph, Arrays.copyOf(pairs, Math.min(pairs.length, DFS_QUERIES))));
+        } catch (StackOverflowError e) {
+            dfs = String.format("%14s", "overflow");
+        }
+        long start = System.nanoTime();
+        graph.freeze();
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+        double index = nanosPerQuery(graph, pairs);
+        System.out.printf("%-28s %10d %s %14.1f %10.1f %10d%n", name, classCount, dfs, index, buildMillis, ancestorPairs);
+    }
+
+    private static double nanosPerQuery(Graph<String> graph, String[][] pairs) {
+        long best = Long.MAX_VALUE;
+        int hits = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String[] pair : pairs)
+                if (graph.isSecondNodeAncestorOf(pair[0], pair[1]))
+                    hits++;
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS)
+                best = Math.min(best, elapsed);
+        }
+        ancestorPairs = hits / (WARMUP_ROUNDS + MEASURED_ROUNDS);
+        return (double) best / pairs.length;
+    }
+
+    // every class extends a random earlier class, so depth grows logarithmically
+    private static Graph<String> randomTree(int size, long seed) throws NodeAlreadyExistsException, GraphDoesNotContainNodeException {
+        Random random = new Random(seed);
+        Graph<String> graph = new Graph<>();
+        graph.addNode(className(0));
+        for (int i = 1; i < size; i++) {
+            graph.addNode(className(i));
+            graph.addNodeAsParentOf(className(i), className(random.nextInt(i)));
+        }
+        return graph;
+    }
+
+    // independent single inheritance chains of the given depth
+    private static Graph<String> chains(int depth, int count) throws NodeAlreadyExistsException, GraphDoesNotContainNodeException {
+        Graph<String> graph = new Graph<>();
+        for (int chain = 0; chain < count; chain++) {
+            for (int level = 0; level < depth; level++) {
+                String name = className(chain * depth + level);
+                graph.addNode(name);
+                if (level > 0)
+                    graph.addNodeAsParentOf(name, className(chain * depth + level - 1));
+            }
+        }
+        return graph;
+    }
+
+    private static String[][] randomPairs(int classCount, int queries) {
+        Random random = new Random(queries);
+        String[][] pairs = new String[queries][];
+        for (int i = 0; i < queries; i++)
+            pairs[i] = new String[] {className(random.nextInt(classCount)), className(random.nextInt(classCount))};
+        return pairs;
+    }
+
+    private static String className(int id) {
+        return "Class" + id;
+    }
+
+}
@@ -0,0 +1,187 @@
+package main.benchmark;
+
+import main.PhaseTimer;
+import main.ast.nodes.Program;
+import main.visitor.codeGenerator.CodeGenerator;
+import main.visitor.codeGenerator.backend.BytecodeBackend;
+import main.visitor.codeGenerator.classFile.ClassFileException;
+import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.optimizer.ConstantFolder;
+import main.visitor.typeChecker.TypeChecker;
+import main.visitor.utils.ErrorReporter;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.SophiaLexer;
+import parsers.SophiaParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// measures every compiler phase separately: average time, throughput and bytes allocated per operation
+// usage: java main.benchmark.PhaseBenchmark [--warmup=N] [--iterations=N] [--synthetic] [program.sop | directory]...
+// with no programs it runs on every .sop file of ./samples, --synthetic adds programs from SophiaProgramGenerator
+public class PhaseBenchmark {
+    private static final String[] PHASES = {
+            "parse", "NameAnalyzer", "ErrorReporter (names)", "TypeChecker", "ErrorReporter (types)", "ConstantFolder", "CodeGenerator"
+    };
+
+    private int warmupIterations = 20;
+    private int iterations = 50;
+    // class file bytes of every compile, printed so code generation can not be optimized away
+    private long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        // pathological programs recurse deeply in the parser and in every visitor
+        Thread thread = new Thread(null, () -> {
+            try {
+                runAll(args);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "benchmark", 1L << 30);
+        thread.start();
+        thread.join();
+    }
+
+    private static void runAll(String[] args) throws IOException {
+        PhaseBenchmark benchmark = new PhaseBenchmark();
+        ArrayList<File> programs = new ArrayList<>();
+        boolean synthetic = false;
+        for (String arg : args) {
+            if(arg.startsWith("--warmup="))
+                benchmark.warmupIterations = Integer.parseInt(arg.substring("--warmup=".length()));
+            else if(arg.startsWith("--iterations="))
+                benchmark.iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            else if(arg.equals("--synthetic"))
+                synthetic = true;
+            else
+                programs.add(new File(arg));
+        }
+        if(programs.isEmpty() && !synthetic)
+            programs.add(new File("samples"));
+        for (File program : expand(programs))
+            benchmark.run(program.getName(), new String(Files.readAllBytes(program.toPath()), StandardCharsets.UTF_8));
+        if(synthetic)
+            benchmark.runSynthetic();
+    }
+
+    // generated programs of growing size, to spot phases that scale superlinearly
+    private void runSynthetic() {
+        for (int classes : new int[] {10, 50, 250}) {
+            SophiaProgramGenerator generator = new SophiaProgramGenerator();
+            generator.setClasses(classes);
+            generator.setInheritanceDepth(5);
+            run("synthetic " + classes + " classes", generator.generate());
+        }
+        run("binary expression chain 10000", SophiaProgramGenerator.binaryExpressionChain(10000));
+        run("list value 5000", SophiaProgramGenerator.largeListValue(5000));
+    }
+
+    private static ArrayList<File> expand(ArrayList<File> programs) {
+        ArrayList<File> files = new ArrayList<>();
+        for (File program : programs) {
+            File[] children = program.listFiles((dir, name) -> name.endsWith(".sop"));
+            if(children == null) {
+                files.add(program);
+                continue;
+            }
+            Arrays.sort(children);
+            files.addAll(Arrays.asList(children));
+        }
+        return files;
+    }
+
+    public void run(String name, String source) {
+        PhaseStatistics[] statistics = new PhaseStatistics[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++)
+            statistics[i] = new PhaseStatistics(PHASES[i]);
+        sink = 0;
+        for (int i = 0; i < warmupIterations; i++)
+            compileOnce(source, null);
+        for (int i = 0; i < iterations; i++)
+            compileOnce(source, statistics);
+        System.out.printf("%n%s (%d chars, %d iterations, %d class file bytes)%n", name, source.length(), iterations,
+                sink / Math.max(1, warmupIterations + iterations));
+        System.out.printf("  %-24s %12s %12s %14s %12s%n", "phase", "us/op", "ops/s", "bytes/op", "MB/s alloc");
+        for (PhaseStatistics phaseStatistics : statistics)
+            System.out.println("  " + phaseStatistics.format());
+    }
+
+    private void compileOnce(String source, PhaseStatistics[] statistics) {
+        PhaseTimer timer = new PhaseTimer();
+
+        SophiaLexer sophiaLexer = new SophiaLexer(CharStreams.fromString(source));
+        SophiaParser sophiaParser = new SophiaParser(new CommonTokenStream(sophiaLexer));
+        Program program = sophiaParser.sophia().sophiaProgram;
+        record(statistics, 0, timer);
+
+        NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
+        nameAnalyzer.analyze();
+        record(statistics, 1, timer);
+
+        ErrorReporter errorReporter = new ErrorReporter();
+        int numberOfErrors = program.accept(errorReporter);
+        record(statistics, 2, timer);
+
+        program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+        record(statistics, 3, timer);
+
+        numberOfErrors += program.accept(errorReporter);
+        record(statistics, 4, timer);
+        if(numberOfErrors > 0)
+            throw new IllegalArgumentException("benchmarked program has " + numberOfErrors + " compile errors");
+
+        program.accept(new ConstantFolder());
+        record(statistics, 5, timer);
+
+        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy(),
+                (className, commands) -> {
+                    try {
+                        sink += BytecodeBackend.assemble(commands).length;
+                    } catch (ClassFileException e) {
+                        sink += 1;
+                    }
+                });
+        program.accept(codeGenerator);
+        record(statistics, 6, timer);
+    }
+
+    private static void record(PhaseStatistics[] statistics, int phase, PhaseTimer timer) {
+        timer.lap();
+        if(statistics != null)
+            statistics[phase].add(timer.getNanos(), timer.getAllocatedBytes());
+    }
+
+    private static class PhaseStatistics {
+        private final String name;
+        private long nanos;
+        private long allocatedBytes;
+        private int operations;
+
+        PhaseStatistics(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos, long allocatedBytes) {
+            this.nanos += nanos;
+            this.allocatedBytes += allocatedBytes;
+            this.operations++;
+        }
+
+        String format() {
+            double nanosPerOperation = (double) nanos / operations;
+            double bytesPerOperation = allocatedBytes < 0 ? Double.NaN : (double) allocatedBytes / operations;
+            return String.format("%-24s %12.1f %12.1f %14.0f %12.1f",
+                    name,
+                    nanosPerOperation / 1e3,
+                    1e9 / nanosPerOperation,
+                    bytesPerOperation,
+                    bytesPerOperation / nanosPerOperation * 1e9 / (1 << 20));
+        }
+    }
+
+}
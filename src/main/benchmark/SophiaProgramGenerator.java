@@ -0,0 +1,257 @@
+package main.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+// generates valid (name and type correct) Sophia programs for load and scaling tests, the output only depends on the settings and the seed
+// every method returns an int built from nested arithmetic over its arguments, locals, its class field, a list and calls
+// method k of a class calls method k - 1 of the same class, method 0 calls the last method of the parent class,
+// so calls always terminate and one call from Main runs at most (inheritance depth * methods per class) methods
+// usage: java main.benchmark.SophiaProgramGenerator [--seed=N] [--classes=N] [--depth=N] [--methods=N] [--locals=N]
+//            [--nesting=N] [--list-size=N] [--fptr-density=P] [--binary-chain=N | --list-value=N | --nested-calls=N] [output.sop]
+public class SophiaProgramGenerator {
+    private long seed = 1;
+    private int classes = 10;
+    private int inheritanceDepth = 3;
+    private int methodsPerClass = 5;
+    private int localsPerMethod = 4;
+    private int expressionNesting = 3;
+    private int listSize = 4;
+    private double fptrCallDensity = 0.2;
+
+    private Random random;
+    private StringBuilder program;
+
+    public static void main(String[] args) throws IOException {
+        SophiaProgramGenerator generator = new SophiaProgramGenerator();
+        String output = null;
+        String source = null;
+        for (String arg : args) {
+            if(!arg.startsWith("--")) {
+                output = arg;
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if(equals < 0)
+                throw new IllegalArgumentException("expected --option=value, found " + arg);
+            String option = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (option) {
+                case "seed": generator.setSeed(Long.parseLong(value)); break;
+                case "classes": generator.setClasses(Integer.parseInt(value)); break;
+                case "depth": generator.setInheritanceDepth(Integer.parseInt(value)); break;
+                case "methods": generator.setMethodsPerClass(Integer.parseInt(value)); break;
+                case "locals": generator.setLocalsPerMethod(Integer.parseInt(value)); break;
+                case "nesting": generator.setExpressionNesting(Integer.parseInt(value)); break;
+                case "list-size": generator.setListSize(Integer.parseInt(value)); break;
+                case "fptr-density": generator.setFptrCallDensity(Double.parseDouble(value)); break;
+                case "binary-chain": source = binaryExpressionChain(Integer.parseInt(value)); break;
+                case "list-value": source = largeListValue(Integer.parseInt(value)); break;
+                case "nested-calls": source = nestedCalls(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("unknown option " + arg);
+            }
+        }
+        if(source == null)
+            source = generator.generate();
+        if(output == null) {
+            System.out.print(source);
+            return;
+        }
+        try (Writer writer = new FileWriter(output)) {
+            writer.write(source);
+        }
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setClasses(int classes) {
+        this.classes = Math.max(0, classes);
+    }
+
+    public void setInheritanceDepth(int inheritanceDepth) {
+        this.inheritanceDepth = Math.max(1, inheritanceDepth);
+    }
+
+    public void setMethodsPerClass(int methodsPerClass) {
+        this.methodsPerClass = Math.max(1, methodsPerClass);
+    }
+
+    public void setLocalsPerMethod(int localsPerMethod) {
+        this.localsPerMethod = Math.max(1, localsPerMethod);
+    }
+
+    public void setExpressionNesting(int expressionNesting) {
+        this.expressionNesting = Math.max(0, expressionNesting);
+    }
+
+    public void setListSize(int listSize) {
+        this.listSize = Math.max(0, listSize);
+    }
+
+    public void setFptrCallDensity(double fptrCallDensity) {
+        this.fptrCallDensity = Math.min(1, Math.max(0, fptrCallDensity));
+    }
+
+    // classes are laid out in chains: class i extends class i - 1 unless i starts a new chain of inheritanceDepth classes
+    public String generate() {
+        this.random = new Random(seed);
+        this.program = new StringBuilder();
+        for (int i = 0; i < classes; i++)
+            appendClass(i);
+        appendMainClass();
+        return program.toString();
+    }
+
+    private boolean hasParent(int classIndex) {
+        return classIndex % inheritanceDepth != 0;
+    }
+
+    private static String className(int classIndex) {
+        return "C" + classIndex;
+    }
+
+    private static String methodName(int classIndex, int methodIndex) {
+        return "m" + classIndex + "_" + methodIndex;
+    }
+
+    private void appendClass(int classIndex) {
+        program.append("class ").append(className(classIndex));
+        if(hasParent(classIndex))
+            program.append(" extends ").append(className(classIndex - 1));
+        program.append(" {\n");
+        program.append("    f").append(classIndex).append(": int;\n");
+        for (int methodIndex = 0; methodIndex < methodsPerClass; methodIndex++)
+            appendMethod(classIndex, methodIndex);
+        program.append("}\n\n");
+    }
+
+    private void appendMethod(int classIndex, int methodIndex) {
+        program.append("\n    def int ").append(methodName(classIndex, methodIndex)).append("(a: int, b: int) {\n");
+        for (int i = 0; i < localsPerMethod; i++)
+            program.append("        v").append(i).append(": int;\n");
+        program.append("        x: int;\n");
+        if(listSize > 0)
+            program.append("        l: list(").append(listSize).append(" # int);\n");
+        program.append("        g: func<int, int -> int>;\n");
+
+        String callee = null;
+        if(methodIndex > 0)
+            callee = methodName(classIndex, methodIndex - 1);
+        else if(hasParent(classIndex))
+            callee = methodName(classIndex - 1, methodsPerClass - 1);
+
+        for (int i = 0; i < localsPerMethod; i++) {
+            String value = expression(expressionNesting, "f" + classIndex, i);
+            program.append("        v").append(i).append(" = ").append(value).append(";\n");
+        }
+        if(callee != null) {
+            if(random.nextDouble() < fptrCallDensity) {
+                program.append("        g = this.").append(callee).append(";\n");
+                program.append("        v0 = v0 + g(a % 100, v").append(localsPerMethod - 1).append(" % 100);\n");
+            }
+            else
+                program.append("        v0 = v0 + this.").append(callee).append("(a % 100, v").append(localsPerMethod - 1).append(" % 100);\n");
+        }
+        program.append("        if (v0 > b)\n");
+        program.append("            this.f").append(classIndex).append(" = this.f").append(classIndex).append(" + 1;\n");
+        program.append("        else\n");
+        program.append("            this.f").append(classIndex).append(" = this.f").append(classIndex).append(" - 1;\n");
+        if(listSize > 0) {
+            program.append("        l = ").append(listLiteral(listSize)).append(";\n");
+            program.append("        l[").append(random.nextInt(listSize)).append("] = v0;\n");
+            program.append("        foreach (x in l) {\n");
+            program.append("            v0 = (v0 + x) % 10007;\n");
+            program.append("        }\n");
+        }
+        program.append("        for (x = 0; x < ").append(1 + random.nextInt(3)).append("; x = x + 1)\n");
+        program.append("            v0 = v0 * 3 % 10007;\n");
+        program.append("        return v0;\n");
+        program.append("    }\n");
+    }
+
+    // right nested arithmetic of the given depth over arguments, the locals assigned so far, the class field and constants
+    private String expression(int depth, String field, int assignedLocals) {
+        String leaf = leaf(field, assignedLocals);
+        if(depth == 0)
+            return leaf;
+        String nested = expression(depth - 1, field, assignedLocals);
+        switch (random.nextInt(4)) {
+            case 0: return "(" + leaf + " + " + nested + ")";
+            case 1: return "(" + leaf + " - " + nested + ")";
+            case 2: return "(" + leaf + " * " + nested + " % 101)";
+            default: return "(" + nested + " % " + (2 + random.nextInt(50)) + ")";
+        }
+    }
+
+    private String leaf(String field, int assignedLocals) {
+        int choice = random.nextInt(assignedLocals > 0 ? 5 : 4);
+        switch (choice) {
+            case 0: return "a";
+            case 1: return "b";
+            case 2: return "this." + field;
+            case 3: return Integer.toString(random.nextInt(100));
+            default: return "v" + random.nextInt(assignedLocals);
+        }
+    }
+
+    private static String listLiteral(int size) {
+        StringBuilder literal = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if(i > 0)
+                literal.append(", ");
+            literal.append(i);
+        }
+        return literal.append("]").toString();
+    }
+
+    // Main calls the last method of every class once
+    private void appendMainClass() {
+        program.append("class Main {\n");
+        program.append("    def Main() {\n");
+        program.append("        sum: int;\n");
+        program.append("        sum = 0;\n");
+        for (int i = 0; i < classes; i++)
+            program.append("        sum = (sum + new ").append(className(i)).append("().").append(methodName(i, methodsPerClass - 1)).append("(").append(i).append(", 7)) % 10007;\n");
+        program.append("        print(sum);\n");
+        program.append("        print(\"\\n\");\n");
+        program.append("    }\n");
+        program.append("}\n");
+    }
+
+    // a single assignment whose right side is a left deep chain of length - 1 additions
+    public static String binaryExpressionChain(int length) {
+        StringBuilder source = new StringBuilder();
+        source.append("class Main {\n    def Main() {\n        x: int;\n        x = 1");
+        for (int i = 1; i < length; i++)
+            source.append(i % 16 == 0 ? "\n            + 1" : " + 1");
+        source.append(";\n        print(x);\n        print(\"\\n\");\n    }\n}\n");
+        return source.toString();
+    }
+
+    // a single list literal with the given number of elements
+    public static String largeListValue(int size) {
+        StringBuilder source = new StringBuilder();
+        source.append("class Main {\n    def Main() {\n        l: list(").append(size).append(" # int);\n        l = ");
+        source.append(listLiteral(size));
+        source.append(";\n        print(l[").append(size - 1).append("]);\n        print(\"\\n\");\n    }\n}\n");
+        return source.toString();
+    }
+
+    // this.inc(this.inc(...this.inc(0)...)) nested depth times, every call is an argument of the one around it
+    public static String nestedCalls(int depth) {
+        StringBuilder source = new StringBuilder();
+        source.append("class Main {\n    def Main() {\n        print(");
+        for (int i = 0; i < depth; i++)
+            source.append(i % 16 == 15 ? "\n            this.inc(" : "this.inc(");
+        source.append("0");
+        for (int i = 0; i < depth; i++)
+            source.append(")");
+        source.append(");\n        print(\"\\n\");\n    }\n    def int inc(x: int) {\n        return x + 1;\n    }\n}\n");
+        return source.toString();
+    }
+
+}
@@ -0,0 +1,11 @@
+package main.compileErrorException.codeGenerationErrors;
+
+import main.compileErrorException.CompileErrorException;
+
+public class MethodFrameTooLarge extends CompileErrorException {
+
+    public MethodFrameTooLarge(int line, String methodName, String frameArea, int size) {
+        super(line, "Method " + methodName + " needs " + size + " " + frameArea + " slots, more than the 65535 the JVM allows");
+    }
+
+}
@@ -0,0 +1,24 @@
+package main.jfr;
+
+import jdk.jfr.*;
+
+@Name("sophia.ClassCompilation")
+@Label("Sophia Class Compilation")
+@Category({"Sophia", "Compiler"})
+@Description("Code generation of one Sophia class")
+@StackTrace(false)
+public class ClassCompilationEvent extends Event {
+    @Label("Class")
+    public String className;
+
+    @Label("AST Nodes")
+    public int nodeCount;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the compiling thread for the class")
+    @DataAmount(DataAmount.BYTES)
+    public long allocatedBytes;
+
+    @Label("Jasmin Commands")
+    public int commandCount;
+}
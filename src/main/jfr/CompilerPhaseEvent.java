@@ -0,0 +1,25 @@
+package main.jfr;
+
+import jdk.jfr.*;
+
+@Name("sophia.CompilerPhase")
+@Label("Sophia Compiler Phase")
+@Category({"Sophia", "Compiler"})
+@Description("One phase of SophiaCompiler.compile")
+@StackTrace(false)
+public class CompilerPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("AST Nodes")
+    @Description("Declarations, statements and expressions of the compiled program")
+    public int nodeCount;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the compiling thread during the phase")
+    @DataAmount(DataAmount.BYTES)
+    public long allocatedBytes;
+
+    @Label("Errors")
+    public int numberOfErrors;
+}
@@ -0,0 +1,23 @@
+package main.runner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// defines the compiled program and its List/Fptr runtime straight from class file bytes
+// the parent is the bootstrap loader, so sophia classes never see or clash with the compiler's own classes
+public class InMemoryClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+
+    public InMemoryClassLoader(Map<String, byte[]> classes) {
+        super(null);
+        this.classes = new HashMap<>(classes);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if(bytes == null)
+            throw new ClassNotFoundException(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,74 @@
+package main.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+// runs Main.main of a compiled program inside the compiler's jvm instead of starting a new java process
+// System.out and System.err are redirected while the program runs, so only one program can run at a time
+public class InProcessRunner {
+    private static final Object outputLock = new Object();
+
+    public ProgramOutput run(Map<String, byte[]> classes, String mainClass) throws InterruptedException {
+        ByteArrayOutputStream standardOutput = new ByteArrayOutputStream();
+        ByteArrayOutputStream standardError = new ByteArrayOutputStream();
+        synchronized (outputLock) {
+            PrintStream originalOutput = System.out;
+            PrintStream originalError = System.err;
+            PrintStream capturedOutput = new PrintStream(standardOutput, true);
+            PrintStream capturedError = new PrintStream(standardError, true);
+            System.setOut(capturedOutput);
+            System.setErr(capturedError);
+            try {
+                Thread worker = new Thread(() -> invokeMain(classes, mainClass, capturedError), "main");
+                worker.start();
+                worker.join();
+            } finally {
+                capturedOutput.flush();
+                capturedError.flush();
+                System.setOut(originalOutput);
+                System.setErr(originalError);
+            }
+        }
+        try {
+            return new ProgramOutput(standardOutput.toString("UTF-8"), standardError.toString("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            return new ProgramOutput(standardOutput.toString(), standardError.toString());
+        }
+    }
+
+    // failures are reported the way the java launcher reports them
+    private static void invokeMain(Map<String, byte[]> classes, String mainClass, PrintStream error) {
+        Method main;
+        try {
+            ClassLoader classLoader = new InMemoryClassLoader(classes);
+            main = Class.forName(mainClass, true, classLoader).getMethod("main", String[].class);
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            error.println("Error: Unable to initialize main class " + mainClass);
+            error.println("Caused by: " + e);
+            return;
+        }
+        try {
+            main.invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            Throwable failure = e.getCause();
+            failure.setStackTrace(framesUpToMain(failure.getStackTrace(), mainClass));
+            error.print("Exception in thread \"main\" ");
+            failure.printStackTrace(error);
+        } catch (IllegalAccessException e) {
+            error.println("Error: " + e.getMessage());
+        }
+    }
+
+    // drops the reflection frames of this runner below the program's main method
+    private static StackTraceElement[] framesUpToMain(StackTraceElement[] frames, String mainClass) {
+        for (int i = 0; i < frames.length; i++)
+            if(frames[i].getClassName().equals(mainClass) && frames[i].getMethodName().equals("main"))
+                return Arrays.copyOf(frames, i + 1);
+        return frames;
+    }
+}
@@ -0,0 +1,19 @@
+package main.runner;
+
+public class ProgramOutput {
+    private final String standardOutput;
+    private final String standardError;
+
+    public ProgramOutput(String standardOutput, String standardError) {
+        this.standardOutput = standardOutput;
+        this.standardError = standardError;
+    }
+
+    public String getStandardOutput() {
+        return standardOutput;
+    }
+
+    public String getStandardError() {
+        return standardError;
+    }
+}
@@ -7,6 +7,8 @@ import main.ast.types.Type;
 public class LocalVariableSymbolTableItem extends SymbolTableItem {
     public static String START_KEY = "Var_";
     protected Type type;
+    //jvm local variable slot, assigned by NameBinder
+    private int slot;
 
     public LocalVariableSymbolTableItem(VarDeclaration varDeclaration) {
         this.name = varDeclaration.getVarName().getName();
@@ -25,4 +27,12 @@ public class LocalVariableSymbolTableItem extends SymbolTableItem {
         this.type = type;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
 }
@@ -0,0 +1,126 @@
+package main.symbolTable.utils.graph;
+
+import java.util.*;
+
+// frozen snapshot of a parentship relation: every node gets a dense id and a bitset of all its ancestors (itself included),
+// so ancestor queries are a map lookup and a bit test
+public class AncestorIndex<N> {
+    private final Map<N, Integer> ids = new HashMap<>();
+    private final int[][] parents;
+    private final long[][] ancestors;
+
+    public AncestorIndex(Map<N, Set<N>> parentShipRelation) {
+        for (Map.Entry<N, Set<N>> entry : parentShipRelation.entrySet()) {
+            idOf(entry.getKey());
+            for (N parent : entry.getValue())
+                idOf(parent);
+        }
+        int size = ids.size();
+        parents = new int[size][];
+        for (int i = 0; i < size; i++)
+            parents[i] = new int[0];
+        for (Map.Entry<N, Set<N>> entry : parentShipRelation.entrySet()) {
+            int[] parentIds = new int[entry.getValue().size()];
+            int i = 0;
+            for (N parent : entry.getValue())
+                parentIds[i++] = ids.get(parent);
+            parents[ids.get(entry.getKey())] = parentIds;
+        }
+        ancestors = new long[size][];
+        for (int node : parentsFirstOrder())
+            ancestors[node] = collectAncestors(node);
+    }
+
+    private void idOf(N node) {
+        if (!ids.containsKey(node))
+            ids.put(node, ids.size());
+    }
+
+    // post order over parent edges, so a node comes after its parents unless they are on a cycle with it
+    private int[] parentsFirstOrder() {
+        int size = parents.length;
+        int[] order = new int[size];
+        int orderSize = 0;
+        boolean[] visited = new boolean[size];
+        int[] stack = new int[size];
+        int[] nextParent = new int[size];
+        for (int root = 0; root < size; root++) {
+            if (visited[root])
+                continue;
+            int top = 0;
+            stack[top] = root;
+            visited[root] = true;
+            while (top >= 0) {
+                int node = stack[top];
+                if (nextParent[node] < parents[node].length) {
+                    int parent = parents[node][nextParent[node]++];
+                    if (!visited[parent]) {
+                        visited[parent] = true;
+                        stack[++top] = parent;
+                    }
+                }
+                else {
+                    order[orderSize++] = node;
+                    top--;
+                }
+            }
+        }
+        return order;
+    }
+
+    private long[] collectAncestors(int node) {
+        long[] bits = new long[(parents.length + 63) >>> 6];
+        setBit(bits, node);
+        boolean complete = true;
+        for (int parent : parents[node]) {
+            if (ancestors[parent] == null) {
+                complete = false;
+                continue;
+            }
+            long[] parentBits = ancestors[parent];
+            for (int i = 0; i < bits.length; i++)
+                bits[i] |= parentBits[i];
+        }
+        if (complete)
+            return bits;
+        // a parent on an inheritance cycle is not finished yet, walk the remaining ancestors explicitly
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            for (int parent : parents[pending.pop()]) {
+                if (hasBit(bits, parent))
+                    continue;
+                setBit(bits, parent);
+                if (ancestors[parent] == null)
+                    pending.push(parent);
+                else
+                    for (int i = 0; i < bits.length; i++)
+                        bits[i] |= ancestors[parent][i];
+            }
+        }
+        return bits;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean hasBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public int size() {
+        return parents.length;
+    }
+
+    public boolean isSecondNodeAncestorOf(N first, N second) {
+        if (first.equals(second))
+            return true;
+        Integer firstId = ids.get(first);
+        Integer secondId = ids.get(second);
+        if (firstId == null || secondId == null)
+            return false;
+        return hasBit(ancestors[firstId], secondId);
+    }
+
+}
@@ -7,11 +7,13 @@ import java.util.*;
 
 public class Graph<N> {
     private Map<N, Set<N>> parentShipRelation = new HashMap<>();
+    private AncestorIndex<N> ancestorIndex;
 
     public void addNode(N desired) throws NodeAlreadyExistsException {
         if (parentShipRelation.containsKey(desired))
             throw new NodeAlreadyExistsException();
         parentShipRelation.put(desired, new HashSet<>());
+        ancestorIndex = null;
     }
 
     public boolean doesGraphContainNode(N desired) {
@@ -22,6 +24,16 @@ public class Graph<N> {
         if (!parentShipRelation.containsKey(desired))
             throw new GraphDoesNotContainNodeException();
         parentShipRelation.get(desired).add(parentNode);
+        ancestorIndex = null;
+    }
+
+    // builds the ancestor index used by isSecondNodeAncestorOf until the graph is modified again
+    public void freeze() {
+        ancestorIndex = new AncestorIndex<>(parentShipRelation);
+    }
+
+    public boolean isFrozen() {
+        return ancestorIndex != null;
     }
 
     public Collection<N> getParentsOfNode(N desired) throws GraphDoesNotContainNodeException {
@@ -31,6 +43,8 @@ public class Graph<N> {
     }
 
     public boolean isSecondNodeAncestorOf(N first , N second) {
+        if (ancestorIndex != null)
+            return ancestorIndex.isSecondNodeAncestorOf(first, second);
         Set<N> visitedNodes = new HashSet<>();
         return _isSecondNodeAncestorOf(first,second, visitedNodes);
     }
@@ -0,0 +1,194 @@
+package main.visitor;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+
+// visits every declaration, statement and expression of the tree; subclasses override what they need and call super to keep walking
+// member names, class names and method names are not expressions and are not visited
+public class TreeWalker extends Visitor<Void> {
+
+    @Override
+    public Void visit(Program program) {
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            classDeclaration.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        for(FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
+            fieldDeclaration.accept(this);
+        }
+        if(classDeclaration.getConstructor() != null) {
+            classDeclaration.getConstructor().accept(this);
+        }
+        for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+            methodDeclaration.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        return this.visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        for(VarDeclaration varDeclaration : methodDeclaration.getArgs()) {
+            varDeclaration.accept(this);
+        }
+        for(VarDeclaration varDeclaration : methodDeclaration.getLocalVars()) {
+            varDeclaration.accept(this);
+        }
+        for(Statement statement : methodDeclaration.getBody()) {
+            statement.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(FieldDeclaration fieldDeclaration) {
+        fieldDeclaration.getVarDeclaration().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(VarDeclaration varDeclaration) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        assignmentStmt.getlValue().accept(this);
+        assignmentStmt.getrValue().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        for(Statement statement : blockStmt.getStatements()) {
+            statement.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        conditionalStmt.getCondition().accept(this);
+        if(conditionalStmt.getThenBody() != null) {
+            conditionalStmt.getThenBody().accept(this);
+        }
+        if(conditionalStmt.getElseBody() != null) {
+            conditionalStmt.getElseBody().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        methodCallStmt.getMethodCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        print.getArg().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        returnStmt.getReturnedExpr().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForeachStmt foreachStmt) {
+        foreachStmt.getVariable().accept(this);
+        foreachStmt.getList().accept(this);
+        if(foreachStmt.getBody() != null) {
+            foreachStmt.getBody().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStmt forStmt) {
+        if(forStmt.getInitialize() != null) {
+            forStmt.getInitialize().accept(this);
+        }
+        if(forStmt.getCondition() != null) {
+            forStmt.getCondition().accept(this);
+        }
+        if(forStmt.getUpdate() != null) {
+            forStmt.getUpdate().accept(this);
+        }
+        if(forStmt.getBody() != null) {
+            forStmt.getBody().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        binaryExpression.getFirstOperand().accept(this);
+        binaryExpression.getSecondOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        unaryExpression.getOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        objectOrListMemberAccess.getInstance().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        listAccessByIndex.getInstance().accept(this);
+        listAccessByIndex.getIndex().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCall methodCall) {
+        methodCall.getInstance().accept(this);
+        for(Expression expression : methodCall.getArgs()) {
+            expression.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        for(Expression expression : newClassInstance.getArgs()) {
+            expression.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ListValue listValue) {
+        for(Expression expression : listValue.getElements()) {
+            expression.accept(this);
+        }
+        return null;
+    }
+
+}
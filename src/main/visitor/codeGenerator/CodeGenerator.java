@@ -1,5 +1,7 @@
 package main.visitor.codeGenerator;
 
+import main.PhaseTimer;
+import main.ast.nodes.Node;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
@@ -28,38 +30,77 @@ import main.ast.types.single.BoolType;
 import main.ast.types.single.ClassType;
 import main.ast.types.single.IntType;
 import main.ast.types.single.StringType;
-import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.ItemNotFoundException;
-import main.symbolTable.items.ClassSymbolTableItem;
+import main.compileErrorException.codeGenerationErrors.MethodFrameTooLarge;
+import main.jfr.ClassCompilationEvent;
 import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.LocalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
 import main.symbolTable.utils.graph.Graph;
 import main.visitor.Visitor;
-import main.visitor.typeChecker.ExpressionTypeChecker;
+import main.visitor.codeGenerator.backend.BytecodeBackend;
+import main.visitor.codeGenerator.backend.CodeGeneratorBackend;
+import main.visitor.codeGenerator.backend.JasminBackend;
+import main.visitor.codeGenerator.classFile.ClassFileException;
+import main.visitor.codeGenerator.peephole.PeepholeOptimizer;
+import main.visitor.utils.NodeCounter;
 
 import java.util.Stack;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class CodeGenerator extends Visitor<String> {
-    ExpressionTypeChecker expressionTypeChecker;
     Graph<String> classHierarchy;
     private String outputPath;
-    private FileWriter currentFile;
+    private CodeGeneratorBackend backend;
+    private ArrayList<String> currentClassCommands;
     private ClassDeclaration currentClass;
     private MethodDeclaration currentMethod;
     private int globalCounter;
     private Stack<String> breakLabelStack;
     private Stack<String> continueLabelStack;
-    private int tempSlotInCurrentMethod;
+    private LocalSlotAllocator temporarySlots;
+    private Map<String, ClassDeclaration> classDeclarations;
+    private ArrayList<Integer> fptrCallSiteArities;
+    private int methodStart;
+    private PeepholeOptimizer peepholeOptimizer = PeepholeOptimizer.withDefaultRules();
+    private boolean measureDroppedCode = false;
+    private boolean generatingDroppedCode = false;
+    private PeepholeOptimizer droppedCodePeepholeOptimizer;
+    private int droppedBytes;
+    private boolean tailCallElimination = true;
+    private String methodStartLabel;
+    private ArrayList<String> tailCalls = new ArrayList<>();
+    private static final int MAX_FRAME_SLOTS = 65535;
 
     public CodeGenerator(Graph<String> classHierarchy) {
+        this(classHierarchy, false);
+    }
+
+    public CodeGenerator(Graph<String> classHierarchy, boolean directBytecode) {
         this.classHierarchy = classHierarchy;
-        this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
         this.prepareOutputFolder();
+        if(directBytecode)
+            this.backend = new BytecodeBackend(this.outputPath);
+        else
+            this.backend = new JasminBackend(this.outputPath);
+        this.initialize();
+    }
+
+    // leaves the output folder alone, the backend decides where generated classes go
+    public CodeGenerator(Graph<String> classHierarchy, CodeGeneratorBackend backend) {
+        this.classHierarchy = classHierarchy;
+        this.backend = backend;
+        this.initialize();
+    }
+
+    private void initialize() {
         this.globalCounter = 0;
         this.breakLabelStack = new Stack<>();
         this.continueLabelStack = new Stack<>();
-        this.tempSlotInCurrentMethod = 0;
     }
 
     private void prepareOutputFolder() {
@@ -67,6 +108,7 @@ public class CodeGenerator extends Visitor<String> {
         String jasminPath = "utilities/jarFiles/jasmin.jar";
         String listClassPath = "utilities/codeGenerationUtilityClasses/List.j";
         String fptrClassPath = "utilities/codeGenerationUtilityClasses/Fptr.j";
+        String fptrCallSiteClassPath = "utilities/codeGenerationUtilityClasses/FptrCallSite.j";
         try{
             File directory = new File(this.outputPath);
             File[] files = directory.listFiles();
@@ -79,6 +121,7 @@ public class CodeGenerator extends Visitor<String> {
         copyFile(jasminPath, this.outputPath + "jasmin.jar");
         copyFile(listClassPath, this.outputPath + "List.j");
         copyFile(fptrClassPath, this.outputPath + "Fptr.j");
+        copyFile(fptrCallSiteClassPath, this.outputPath + "FptrCallSite.j");
     }
 
     private void copyFile(String toBeCopied, String toBePasted) {
@@ -96,27 +139,58 @@ public class CodeGenerator extends Visitor<String> {
         } catch (IOException e) { }
     }
 
-    private void createFile(String name) {
-        try {
-            String path = this.outputPath + name + ".j";
-            File file = new File(path);
-            file.createNewFile();
-            FileWriter fileWriter = new FileWriter(path);
-            this.currentFile = fileWriter;
-        } catch (IOException e) {}
+    public CodeGeneratorBackend getBackend() {
+        return backend;
+    }
+
+    public PeepholeOptimizer getPeepholeOptimizer() {
+        return peepholeOptimizer;
+    }
+
+    // null turns the peephole pass off
+    public void setPeepholeOptimizer(PeepholeOptimizer peepholeOptimizer) {
+        this.peepholeOptimizer = peepholeOptimizer;
+    }
+
+    // unreachable classes and methods are then still generated, only to measure the class files they would have taken
+    public void setMeasureDroppedCode(boolean measureDroppedCode) {
+        this.measureDroppedCode = measureDroppedCode;
+    }
+
+    // dropped code is optimized like the code that is emitted, but by its own optimizer so that the counters and the time
+    // of the real one only cover emitted code, and its frames report no errors
+    private PeepholeOptimizer currentPeepholeOptimizer() {
+        if (!this.generatingDroppedCode || this.peepholeOptimizer == null) {
+            return this.peepholeOptimizer;
+        }
+        if (this.droppedCodePeepholeOptimizer == null) {
+            this.droppedCodePeepholeOptimizer = PeepholeOptimizer.withDefaultRules();
+        }
+        return this.droppedCodePeepholeOptimizer;
+    }
+
+    public int getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    public void setTailCallElimination(boolean tailCallElimination) {
+        this.tailCallElimination = tailCallElimination;
+    }
+
+    public ArrayList<String> getTailCalls() {
+        return tailCalls;
+    }
+
+    private void startClass() {
+        this.currentClassCommands = new ArrayList<>();
     }
 
     private void addCommand(String command) {
-        try {
-            command = String.join("\n\t\t", command.split("\n"));
-            if(command.startsWith("Label_"))
-                this.currentFile.write("\t" + command + "\n");
-            else if(command.startsWith("."))
-                this.currentFile.write(command + "\n");
-            else
-                this.currentFile.write("\t\t" + command + "\n");
-            this.currentFile.flush();
-        } catch (IOException e) {}
+        String[] lines = command.split("\n");
+        if(lines.length == 0)
+            this.currentClassCommands.add("");
+        for(String line : lines)
+            this.currentClassCommands.add(line);
     }
 
     private String getNewLabel() {
@@ -176,6 +250,19 @@ public class CodeGenerator extends Visitor<String> {
         return "";
     }
 
+    private boolean isPrimitive(Type t) {
+        return t instanceof IntType || t instanceof BoolType;
+    }
+
+    // int and bool locals live unboxed in their slots
+    private String loadLocal(Type t, int slot) {
+        return String.format("%s %d", isPrimitive(t) ? "iload" : "aload", slot);
+    }
+
+    private String storeLocal(Type t, int slot) {
+        return String.format("%s %d", isPrimitive(t) ? "istore" : "astore", slot);
+    }
+
     private String castObject(Type t) {
         return String.format("checkcast %s\n", getObjectType(t));
     }
@@ -184,10 +271,29 @@ public class CodeGenerator extends Visitor<String> {
         if (methodDeclaration.getReturnType() instanceof NullType) {
             return "V";
         } else {
-            return makeTypeSignature(methodDeclaration.getReturnType());
+            return getPrimitiveType(methodDeclaration.getReturnType());
         }
     }
 
+    // int and bool arguments and return values are passed unboxed
+    private String makeMethodSignature(MethodDeclaration methodDeclaration) {
+        StringBuilder argumentString = new StringBuilder();
+        for (VarDeclaration arg: methodDeclaration.getArgs()) {
+            argumentString.append(getPrimitiveType(arg.getType()));
+        }
+        return String.format("(%s)%s", argumentString, makeReturnTypeSignature(methodDeclaration));
+    }
+
+    // Fptr resolves its method once from this descriptor and adapts it to boxed arguments itself
+    private String makeFptrSignature(FptrType fptrType) {
+        StringBuilder argumentString = new StringBuilder();
+        for (Type argType: fptrType.getArgumentsTypes()) {
+            argumentString.append(getPrimitiveType(argType));
+        }
+        Type returnType = fptrType.getReturnType();
+        return String.format("(%s)%s", argumentString, returnType instanceof NullType ? "V" : getPrimitiveType(returnType));
+    }
+
     private String getNewArrayList() {
         String commands = "";
         commands += "new java/util/ArrayList\n";
@@ -205,7 +311,7 @@ public class CodeGenerator extends Visitor<String> {
 
     private void putInitValueList(ListType varType) {
         addCommand(getNewArrayList());
-        int tempSlot = slotOf("");
+        int tempSlot = temporarySlots.acquire();
         addCommand(String.format("astore %d\n", tempSlot));
         ArrayList<ListNameType> listElements = varType.getElementsTypes();
         for (ListNameType listElement : listElements) {
@@ -217,6 +323,16 @@ public class CodeGenerator extends Visitor<String> {
         addCommand(getNewList());
         addCommand(String.format("aload %d", tempSlot));
         addCommand("invokespecial List/<init>(Ljava/util/ArrayList;)V");
+        temporarySlots.release(tempSlot);
+    }
+
+    // initial value of a local or field, int and bool ones are stored unboxed
+    private void putUnboxedInitValue(Type varType) {
+        if (isPrimitive(varType)) {
+            addCommand("iconst_0");
+            return;
+        }
+        putInitValue(varType);
     }
 
     private void putInitValue(Type varType) {
@@ -238,9 +354,32 @@ public class CodeGenerator extends Visitor<String> {
         addCommand("");
     }
 
+    // placeholders right after the .method directive, filled in by endMethod once the whole method is generated
     private void addStackLocalSize() {
-        addCommand(".limit stack 128");
-        addCommand(".limit locals 128");
+        this.methodStart = this.currentClassCommands.size() - 1;
+        addCommand(".limit stack 0");
+        addCommand(".limit locals 0");
+    }
+
+    private void endMethod(Node node, String methodName) {
+        addCommand(".end method");
+        PeepholeOptimizer optimizer = currentPeepholeOptimizer();
+        if (optimizer != null) {
+            List<String> body = this.currentClassCommands.subList(this.methodStart + 3, this.currentClassCommands.size() - 1);
+            ArrayList<String> optimizedBody = optimizer.optimize(body);
+            body.clear();
+            body.addAll(optimizedBody);
+        }
+        FrameSizeCalculator frameSize = new FrameSizeCalculator(
+                this.currentClassCommands.subList(this.methodStart, this.currentClassCommands.size()));
+        if (frameSize.getMaxStack() > MAX_FRAME_SLOTS && !this.generatingDroppedCode) {
+            node.addError(new MethodFrameTooLarge(node.getLine(), methodName, "operand stack", frameSize.getMaxStack()));
+        }
+        if (frameSize.getMaxLocals() > MAX_FRAME_SLOTS && !this.generatingDroppedCode) {
+            node.addError(new MethodFrameTooLarge(node.getLine(), methodName, "local variable", frameSize.getMaxLocals()));
+        }
+        this.currentClassCommands.set(this.methodStart + 1, ".limit stack " + frameSize.getMaxStack());
+        this.currentClassCommands.set(this.methodStart + 2, ".limit locals " + frameSize.getMaxLocals());
     }
 
     private void callParentConstructor() {
@@ -251,20 +390,20 @@ public class CodeGenerator extends Visitor<String> {
         for (FieldDeclaration fieldDeclaration : currentClass.getFields()) {
             VarDeclaration varDec = fieldDeclaration.getVarDeclaration();
             addCommand("aload 0");
-            putInitValue(varDec.getType());
+            putUnboxedInitValue(varDec.getType());
             addCommand(
                     String.format(
                             "putfield %s/%s %s",
                             currentClass.getClassName().getName(),
                             varDec.getVarName().getName(),
-                            makeTypeSignature(varDec.getType())
+                            getPrimitiveType(varDec.getType())
                     )
             );
         }
     }
 
     private void addDefaultConstructor() {
-        this.currentMethod = new MethodDeclaration(new Identifier("0defaultConstructor"), new NullType());
+        setCurrentMethod(new MethodDeclaration(new Identifier("0defaultConstructor"), new NullType()));
         addCommand(".method public <init>()V");
         addStackLocalSize();
         addCommand(";in addDefaultConstructor");
@@ -272,7 +411,60 @@ public class CodeGenerator extends Visitor<String> {
         callParentConstructor();
         initializeFields();
         addCommand("return");
-        addCommand(".end method");
+        endMethod(currentClass, "<init>");
+    }
+
+    private String fptrCallSiteField(int site) {
+        return String.format("%s/fptrCallSite$%d Ljava/lang/invoke/MethodHandle;", currentClass.getClassName().getName(), site);
+    }
+
+    // every call through a function pointer gets its own FptrCallSite, whose dynamic invoker is kept in a static final field
+    private void addFptrCallSites(int fieldsEnd) {
+        if (fptrCallSiteArities.isEmpty())
+            return;
+        ArrayList<String> fields = new ArrayList<>();
+        for (int site = 0; site < fptrCallSiteArities.size(); site++) {
+            fields.add(String.format(".field static final fptrCallSite$%d Ljava/lang/invoke/MethodHandle;", site));
+        }
+        this.currentClassCommands.addAll(fieldsEnd, fields);
+        addCommand(".method static <clinit>()V");
+        addStackLocalSize();
+        for (int site = 0; site < fptrCallSiteArities.size(); site++) {
+            addCommand("new FptrCallSite");
+            addCommand("dup");
+            addCommand(String.format("ldc %d", fptrCallSiteArities.get(site)));
+            addCommand("invokespecial FptrCallSite/<init>(I)V");
+            addCommand("invokevirtual FptrCallSite/dynamicInvoker()Ljava/lang/invoke/MethodHandle;");
+            addCommand("putstatic " + fptrCallSiteField(site));
+        }
+        addCommand("return");
+        endMethod(currentClass, "<clinit>");
+    }
+
+    // generates the method and takes it out of the class again, together with the call sites it added
+    private void measureDroppedMethod(MethodDeclaration methodDeclaration) {
+        int start = this.currentClassCommands.size();
+        int callSites = this.fptrCallSiteArities.size();
+        boolean droppedClass = this.generatingDroppedCode;
+        this.generatingDroppedCode = true;
+        setCurrentMethod(methodDeclaration);
+        methodDeclaration.accept(this);
+        this.generatingDroppedCode = droppedClass;
+        List<String> method = this.currentClassCommands.subList(start, this.currentClassCommands.size());
+        ArrayList<String> header = new ArrayList<>(this.currentClassCommands.subList(0, 2));
+        ArrayList<String> withMethod = new ArrayList<>(header);
+        withMethod.addAll(method);
+        this.droppedBytes += classFileSize(withMethod) - classFileSize(header);
+        method.clear();
+        this.fptrCallSiteArities.subList(callSites, this.fptrCallSiteArities.size()).clear();
+    }
+
+    private static int classFileSize(ArrayList<String> commands) {
+        try {
+            return BytecodeBackend.assemble(commands).length;
+        } catch (ClassFileException e) {
+            return 0;
+        }
     }
 
     private void addStaticMainMethod() {
@@ -281,30 +473,18 @@ public class CodeGenerator extends Visitor<String> {
         addCommand(String.format("new %s", "Main"));
         addCommand(String.format("invokespecial %s/<init>()V", "Main"));
         addCommand("return");
-        addCommand(".end method");
+        endMethod(currentClass, "main");
     }
 
-    private int slotOf(String identifier) {
-        int index = 1;
-        for (VarDeclaration arg: currentMethod.getArgs()) {
-            if (arg.getVarName().getName().equals(identifier)) {
-                return index;
-            }
-            index ++;
-        }
-
-        for (VarDeclaration localVar: currentMethod.getLocalVars()) {
-            if (localVar.getVarName().getName().equals(identifier)) {
-                return index;
-            }
-            index ++;
-        }
+    // arguments and locals get their slots from NameBinder, temporaries get the slots after them
+    private void setCurrentMethod(MethodDeclaration methodDeclaration) {
+        this.currentMethod = methodDeclaration;
+        int firstTemporarySlot = 1 + methodDeclaration.getArgs().size() + methodDeclaration.getLocalVars().size();
+        this.temporarySlots = new LocalSlotAllocator(firstTemporarySlot);
+    }
 
-        if (identifier.equals("")) {
-            this.tempSlotInCurrentMethod ++;
-            return tempSlotInCurrentMethod + index;
-        }
-        return index;
+    private int slotOf(Identifier identifier) {
+        return ((LocalVariableSymbolTableItem) identifier.getSymbolTableItem()).getSlot();
     }
 
     private String getClassParentName(ClassDeclaration classDeclaration) {
@@ -318,7 +498,10 @@ public class CodeGenerator extends Visitor<String> {
         return classDeclaration.getClassName().getName().equals("Main");
     }
 
+    // self tail calls jump back to before the locals are initialized, the label is only added when one of them does
     private void methodBodyVisitor(MethodDeclaration methodDeclaration) {
+        int bodyStart = this.currentClassCommands.size();
+        this.methodStartLabel = null;
         for (VarDeclaration localVar: methodDeclaration.getLocalVars()) {
             localVar.accept(this);
         }
@@ -327,46 +510,85 @@ public class CodeGenerator extends Visitor<String> {
             statement.accept(this);
 
         }
+        if (this.methodStartLabel != null) {
+            this.currentClassCommands.add(bodyStart, this.methodStartLabel + ":");
+        }
 
         if (!methodDeclaration.getDoesReturn()) {
             addCommand("return");
         }
 
-        addCommand(".end method");
+        endMethod(methodDeclaration, methodDeclaration.getMethodName().getName());
     }
 
+    // the value of && and || is only materialized here, their operands are compiled as conditions
     private String shortCircuit(BinaryExpression binaryExpression) {
         String commands = "";
         String scopeLabel = getNewLabel();
         String jumpExpression = String.format("jumpExpression_%s", scopeLabel);
         String endExpression = String.format("endExpression_%s", scopeLabel);
 
-        Expression firstOperand = binaryExpression.getFirstOperand();
-        Expression secondOperand = binaryExpression.getSecondOperand();
-        BinaryOperator binaryOperator = binaryExpression.getBinaryOperator();
-
-        commands += String.format("%s\n", firstOperand.accept(this));
-        if (binaryOperator == BinaryOperator.and) {
-            commands += String.format("ifeq %s\n", jumpExpression);
-        } else { // BinaryOperator.or
-            commands += String.format("ifne %s\n", jumpExpression);
-        }
-
-        commands += String.format("%s\n", secondOperand.accept(this));
+        commands += branchOnCondition(binaryExpression, jumpExpression, true);
+        commands += "iconst_0\n";
         commands += String.format("goto %s\n", endExpression);
-
         commands += String.format("%s:\n", jumpExpression);
-        if (binaryOperator == BinaryOperator.and) {
-            commands += "iconst_0\n";
-        } else { // BinaryOperator.or
-            commands += "iconst_1\n";
-        }
-
+        commands += "iconst_1\n";
         commands += String.format("%s:\n", endExpression);
 
         return commands;
     }
 
+    // jumps to target when the condition evaluates to jumpIfTrue and falls through otherwise,
+    // comparisons branch directly on their operands and ! swaps the targets instead of computing a value
+    private String branchOnCondition(Expression condition, String target, boolean jumpIfTrue) {
+        if (condition instanceof UnaryExpression && ((UnaryExpression) condition).getOperator() == UnaryOperator.not) {
+            return branchOnCondition(((UnaryExpression) condition).getOperand(), target, !jumpIfTrue);
+        }
+        if (condition instanceof BoolValue) {
+            return ((BoolValue) condition).getConstant() == jumpIfTrue ? String.format("goto %s\n", target) : "";
+        }
+        if (!(condition instanceof BinaryExpression)) {
+            return condition.accept(this) + String.format("%s %s\n", jumpIfTrue ? "ifne" : "ifeq", target);
+        }
+        BinaryExpression binaryExpression = (BinaryExpression) condition;
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        Expression firstOperand = binaryExpression.getFirstOperand();
+        Expression secondOperand = binaryExpression.getSecondOperand();
+        if (operator == BinaryOperator.and || operator == BinaryOperator.or) {
+            // the first operand alone decides when it is false for && or true for ||
+            boolean decidingValue = operator == BinaryOperator.or;
+            if (decidingValue == jumpIfTrue) {
+                return branchOnCondition(firstOperand, target, jumpIfTrue) + branchOnCondition(secondOperand, target, jumpIfTrue);
+            }
+            String skip = String.format("skipCondition_%s", getNewLabel());
+            return branchOnCondition(firstOperand, skip, decidingValue)
+                    + branchOnCondition(secondOperand, target, jumpIfTrue)
+                    + String.format("%s:\n", skip);
+        }
+        String comparison;
+        if (operator == BinaryOperator.lt || operator == BinaryOperator.gt) {
+            comparison = "icmp" + operator.toString();
+        } else if (operator == BinaryOperator.eq || operator == BinaryOperator.neq) {
+            boolean primitive = isPrimitive(firstOperand.getType());
+            comparison = (primitive ? "icmp" : "acmp") + (operator == BinaryOperator.eq ? "eq" : "ne");
+        } else {
+            return condition.accept(this) + String.format("%s %s\n", jumpIfTrue ? "ifne" : "ifeq", target);
+        }
+        if (!jumpIfTrue) {
+            comparison = comparison.substring(0, 4) + negatedComparison(comparison.substring(4));
+        }
+        return firstOperand.accept(this) + secondOperand.accept(this) + String.format("if_%s %s\n", comparison, target);
+    }
+
+    private String negatedComparison(String operator) {
+        switch (operator) {
+            case "lt": return "ge";
+            case "gt": return "le";
+            case "eq": return "ne";
+            default: return "eq";
+        }
+    }
+
     private String compareExpressions(String operator, String cmd) {
         String scopeLabel = getNewLabel();
         String commands = "";
@@ -386,7 +608,7 @@ public class CodeGenerator extends Visitor<String> {
     }
 
     private String equalityExpressions(Expression expression, String operator) {
-        Type expType = expression.accept(expressionTypeChecker);
+        Type expType = expression.getType();
         if (expType instanceof IntType || expType instanceof BoolType) {
             return compareExpressions(operator, "icmp");
         }
@@ -415,8 +637,14 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(Program program) {
+        this.classDeclarations = new HashMap<>();
         for (ClassDeclaration classDeclaration : program.getClasses()) {
-            this.expressionTypeChecker.setCurrentClass(classDeclaration);
+            this.classDeclarations.put(classDeclaration.getClassName().getName(), classDeclaration);
+        }
+        for (ClassDeclaration classDeclaration : program.getClasses()) {
+            if (!classDeclaration.getIsReachable() && !this.measureDroppedCode) {
+                continue;
+            }
             this.currentClass = classDeclaration;
             classDeclaration.accept(this);
         }
@@ -426,32 +654,59 @@ public class CodeGenerator extends Visitor<String> {
     @Override
     public String visit(ClassDeclaration classDeclaration) {
         String className = classDeclaration.getClassName().getName();
-        createFile(className);
-
-        addCommand(String.format(".class public %s", className));
+        ClassCompilationEvent event = new ClassCompilationEvent();
+        // started even when not recording, as a recording may start while the class is generated
+        PhaseTimer timer = new PhaseTimer();
+        event.begin();
+        startClass();
+        this.generatingDroppedCode = !classDeclaration.getIsReachable();
+
+        addCommand(String.format(".class public %s%s", classDeclaration.getIsFinal() ? "final " : "", className));
         addCommand(String.format(".super %s", getClassParentName(classDeclaration)));
         addCommand("");
         addCommand("");
         for (FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
             fieldDeclaration.accept(this);
         }
+        int fieldsEnd = this.currentClassCommands.size();
+        this.fptrCallSiteArities = new ArrayList<>();
 
         if (classDeclaration.getConstructor() != null) {
-            this.expressionTypeChecker.setCurrentMethod(classDeclaration.getConstructor());
-            this.currentMethod = classDeclaration.getConstructor();
-            this.tempSlotInCurrentMethod = 0;
+            setCurrentMethod(classDeclaration.getConstructor());
             classDeclaration.getConstructor().accept(this);
         } else {
             addDefaultConstructor();
         }
 
         for (MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
-            this.expressionTypeChecker.setCurrentMethod(methodDeclaration);
-            this.currentMethod = methodDeclaration;
-            this.tempSlotInCurrentMethod = 0;
+            if (!methodDeclaration.getIsReachable()) {
+                if (this.measureDroppedCode) {
+                    measureDroppedMethod(methodDeclaration);
+                }
+                continue;
+            }
+            setCurrentMethod(methodDeclaration);
             methodDeclaration.accept(this);
         }
+        addFptrCallSites(fieldsEnd);
 
+        if (classDeclaration.getIsReachable()) {
+            this.backend.emitClass(className, this.currentClassCommands);
+        } else {
+            this.droppedBytes += classFileSize(this.currentClassCommands);
+        }
+        this.generatingDroppedCode = false;
+        event.end();
+        if(event.shouldCommit() && classDeclaration.getIsReachable()) {
+            timer.lap();
+            NodeCounter nodeCounter = new NodeCounter();
+            classDeclaration.accept(nodeCounter);
+            event.className = className;
+            event.nodeCount = nodeCounter.getCount();
+            event.allocatedBytes = timer.getAllocatedBytes();
+            event.commandCount = this.currentClassCommands.size();
+            event.commit();
+        }
         return null;
     }
 
@@ -460,7 +715,7 @@ public class CodeGenerator extends Visitor<String> {
         if (constructorDeclaration.getArgs().size() > 0) {
             addDefaultConstructor();
         }
-        this.currentMethod = constructorDeclaration;
+        setCurrentMethod(constructorDeclaration);
 
         if (isClassMain(currentClass)) {
             addStaticMainMethod();
@@ -471,21 +726,17 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(MethodDeclaration methodDeclaration) {
-        StringBuilder argumentString = new StringBuilder();
-        for (VarDeclaration arg: methodDeclaration.getArgs()) {
-            argumentString.append(makeTypeSignature(arg.getType()));
-        }
-
         if (methodDeclaration instanceof ConstructorDeclaration) {
-            addCommand(String.format(".method public <init>(%s)%s", argumentString, makeReturnTypeSignature(methodDeclaration)));
+            addCommand(String.format(".method public <init>%s", makeMethodSignature(methodDeclaration)));
         } else {
-            addCommand(String.format(".method public %s(%s)%s", methodDeclaration.getMethodName().getName(), argumentString, makeReturnTypeSignature(methodDeclaration)));
+            addCommand(String.format(".method public %s%s%s", methodDeclaration.getIsFinal() ? "final " : "",
+                    methodDeclaration.getMethodName().getName(), makeMethodSignature(methodDeclaration)));
         }
 
         addStackLocalSize();
-        addCommand("aload 0");
 
         if (methodDeclaration instanceof ConstructorDeclaration) {
+            addCommand("aload 0");
             callParentConstructor();
             initializeFields();
         }
@@ -502,7 +753,7 @@ public class CodeGenerator extends Visitor<String> {
                 String.format(
                         ".field %s %s",
                         fieldDeclaration.getVarDeclaration().getVarName().getName(),
-                        makeTypeSignature(fieldDeclaration.getVarDeclaration().getType())
+                        getPrimitiveType(fieldDeclaration.getVarDeclaration().getType())
                 )
         );
         return null;
@@ -510,8 +761,8 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(VarDeclaration varDeclaration) {
-        putInitValue(varDeclaration.getType());
-        addCommand(String.format("%s %d", "astore", slotOf(varDeclaration.getVarName().getName())));
+        putUnboxedInitValue(varDeclaration.getType());
+        addCommand(storeLocal(varDeclaration.getType(), slotOf(varDeclaration.getVarName())));
         return null;
     }
 
@@ -543,10 +794,7 @@ public class CodeGenerator extends Visitor<String> {
         String elseStmt = String.format("elseStmt_%s", scopeLabel);
         String afterStmt = String.format("afterStmt_%s", scopeLabel);
 
-        Expression condition = conditionalStmt.getCondition();
-        addCommand(condition.accept(this));
-
-        addCommand(String.format("ifeq %s", elseStmt));
+        addCommand(branchOnCondition(conditionalStmt.getCondition(), elseStmt, false));
         addCommand(String.format("%s:", thenStmt));
 
         Statement thenBody = conditionalStmt.getThenBody();
@@ -569,10 +817,12 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(MethodCallStmt methodCallStmt) {
-        this.expressionTypeChecker.setIsInMethodCallStmt(true);
-        addCommand(methodCallStmt.getMethodCall().accept(this));
-        addCommand("pop");
-        this.expressionTypeChecker.setIsInMethodCallStmt(false);
+        MethodCall methodCall = methodCallStmt.getMethodCall();
+        addCommand(methodCall.accept(this));
+        MethodDeclaration target = directCallTarget(methodCall);
+        if (target == null || !(target.getReturnType() instanceof NullType)) {
+            addCommand("pop");
+        }
         return null;
     }
 
@@ -581,7 +831,7 @@ public class CodeGenerator extends Visitor<String> {
         Expression arg = print.getArg();
         addCommand("getstatic java/lang/System/out Ljava/io/PrintStream;");
 
-        Type argType = arg.accept(expressionTypeChecker);
+        Type argType = arg.getType();
         addCommand(arg.accept(this));
         addCommand(
                 String.format("invokevirtual java/io/PrintStream/print(%s)V",
@@ -591,17 +841,60 @@ public class CodeGenerator extends Visitor<String> {
         return null;
     }
 
+    // subclasses cannot redefine a method, so a call resolving to the current method runs it whatever the receiver is
+    private boolean isSelfTailCall(Expression returnedExpr) {
+        if (!this.tailCallElimination || this.currentMethod instanceof ConstructorDeclaration
+                || !(returnedExpr instanceof MethodCall)) {
+            return false;
+        }
+        return directCallTarget((MethodCall) returnedExpr) == this.currentMethod;
+    }
+
+    // the receiver and every argument are evaluated before any parameter is assigned, as they may read the parameters;
+    // another receiver becomes the new this once its null check has thrown where the call would have
+    private void selfTailCall(MethodCall methodCall) {
+        ArrayList<VarDeclaration> parameters = this.currentMethod.getArgs();
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+        boolean sameReceiver = receiver instanceof ThisClass;
+        if (!sameReceiver) {
+            addCommand(receiver.accept(this));
+        }
+        for (Expression arg: methodCall.getArgs()) {
+            addCommand(arg.accept(this));
+        }
+        for (int i = parameters.size() - 1; i >= 0; i--) {
+            VarDeclaration parameter = parameters.get(i);
+            addCommand(storeLocal(parameter.getType(), slotOf(parameter.getVarName())));
+        }
+        if (!sameReceiver) {
+            addCommand("dup");
+            addCommand("invokevirtual java/lang/Object/getClass()Ljava/lang/Class;");
+            addCommand("pop");
+            addCommand("astore 0");
+        }
+        if (this.methodStartLabel == null) {
+            this.methodStartLabel = String.format("methodStart_%s", getNewLabel());
+        }
+        addCommand(String.format("goto %s", this.methodStartLabel));
+        if (this.generatingDroppedCode) {
+            return;
+        }
+        this.tailCalls.add(String.format("line %d: tail call of %s.%s jumps to the start of the method", methodCall.getLine(),
+                currentClass.getClassName().getName(), this.currentMethod.getMethodName().getName()));
+    }
+
     @Override
     public String visit(ReturnStmt returnStmt) {
-        Type type = returnStmt.getReturnedExpr().accept(expressionTypeChecker);
+        if (isSelfTailCall(returnStmt.getReturnedExpr())) {
+            selfTailCall((MethodCall) returnStmt.getReturnedExpr());
+            return null;
+        }
+        Type type = returnStmt.getReturnedExpr().getType();
         addCommand(returnStmt.getReturnedExpr().accept(this));
         if (type instanceof NullType) {
             addCommand("return");
         } else {
-            if (type instanceof IntType || type instanceof BoolType) {
-                addCommand(ConvertPrimitiveToJavaObj(type));
-            }
-            addCommand("areturn");
+            addCommand(isPrimitive(type) ? "ireturn" : "areturn");
         }
         return null;
     }
@@ -627,7 +920,7 @@ public class CodeGenerator extends Visitor<String> {
         String forUpdate = String.format("forUpdate_%s", scopeLabel);
 
 
-        int iteratorSlot = slotOf("");
+        int iteratorSlot = temporarySlots.acquire();
         addCommand("iconst_0");
         addCommand(String.format("istore %d", iteratorSlot));
 
@@ -649,18 +942,18 @@ public class CodeGenerator extends Visitor<String> {
                 )
         );
         addCommand("invokevirtual java/util/ArrayList/size()I");
-        addCommand(compareExpressions("lt", "icmp"));
-
-        addCommand(String.format("ifeq %s", endFor));
+        addCommand(String.format("if_icmpge %s", endFor));
 
 
         // get next element from list
         addCommand(foreachStmt.getList().accept(this));
         addCommand(String.format("iload %d", iteratorSlot));
         addCommand("invokevirtual List/getElement(I)Ljava/lang/Object;\n");
-        addCommand(castObject(foreachStmt.getVariable().accept(expressionTypeChecker)));
+        Type variableType = foreachStmt.getVariable().getType();
+        addCommand(castObject(variableType));
+        addCommand(convertJavaObjToPrimitive(variableType));
 
-        addCommand(String.format("astore %d", slotOf(foreachStmt.getVariable().getName())));
+        addCommand(storeLocal(variableType, slotOf(foreachStmt.getVariable())));
 
         // body stmt
         Statement body = foreachStmt.getBody();
@@ -679,6 +972,7 @@ public class CodeGenerator extends Visitor<String> {
 
         addCommand(String.format("goto %s", forStart));
         addCommand(String.format("%s:", endFor));
+        temporarySlots.release(iteratorSlot);
 
         continueLabelStack.pop();
         breakLabelStack.pop();
@@ -706,11 +1000,9 @@ public class CodeGenerator extends Visitor<String> {
 
         Expression condition = forStmt.getCondition();
         if (condition != null) {
-            addCommand(condition.accept(this));
+            addCommand(branchOnCondition(condition, endFor, false));
         }
 
-        addCommand(String.format("ifeq %s", endFor));
-
         Statement body = forStmt.getBody();
         if (body != null) {
             body.accept(this);
@@ -735,22 +1027,21 @@ public class CodeGenerator extends Visitor<String> {
     public String assignment(BinaryExpression binaryExpression) {
         String commands = "";
 
-        Type firstType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
-        Type secondType = binaryExpression.getSecondOperand().accept(expressionTypeChecker);
+        Type firstType = binaryExpression.getFirstOperand().getType();
+        Type secondType = binaryExpression.getSecondOperand().getType();
         String secondOperandCommands = binaryExpression.getSecondOperand().accept(this);
         if(firstType instanceof ListType) {
-            int newSlot = slotOf("");
+            int newSlot = temporarySlots.acquire();
             secondOperandCommands += String.format("astore %d\n", newSlot);
             secondOperandCommands += (getNewList());
             secondOperandCommands += String.format("aload %d\n", newSlot);
             secondOperandCommands += "invokespecial List/<init>(LList;)V\n";
+            temporarySlots.release(newSlot);
         }
         if(binaryExpression.getFirstOperand() instanceof Identifier) {
-            secondOperandCommands += ConvertPrimitiveToJavaObj(secondType);
-            secondOperandCommands += "\n";
             commands += secondOperandCommands;
-            int slot = slotOf(((Identifier) binaryExpression.getFirstOperand()).getName());
-            commands += String.format("astore %d\n", slot);
+            int slot = slotOf((Identifier) binaryExpression.getFirstOperand());
+            commands += storeLocal(firstType, slot) + "\n";
         }
         else if(binaryExpression.getFirstOperand() instanceof ListAccessByIndex) {
             ListAccessByIndex first = (ListAccessByIndex) binaryExpression.getFirstOperand();
@@ -763,9 +1054,9 @@ public class CodeGenerator extends Visitor<String> {
         }
         else if(binaryExpression.getFirstOperand() instanceof ObjectOrListMemberAccess) {
             Expression instance = ((ObjectOrListMemberAccess) binaryExpression.getFirstOperand()).getInstance();
-            Type memberType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
+            Type memberType = binaryExpression.getFirstOperand().getType();
             String memberName = ((ObjectOrListMemberAccess) binaryExpression.getFirstOperand()).getMemberName().getName();
-            Type instanceType = instance.accept(expressionTypeChecker);
+            Type instanceType = instance.getType();
             if(instanceType instanceof ListType) {
                 commands += instance.accept(this);
                 ArrayList<ListNameType> listElements = ((ListType) instanceType).getElementsTypes();
@@ -784,15 +1075,13 @@ public class CodeGenerator extends Visitor<String> {
             }
             else if(instanceType instanceof ClassType) {
                 commands += instance.accept(this);
-                secondOperandCommands += ConvertPrimitiveToJavaObj(secondType);
-                secondOperandCommands += "\n";
                 commands += secondOperandCommands;
                 commands += String.format
                         (
                                 "putfield %s/%s %s",
                                 ((ClassType) instanceType).getClassName().getName(),
                                 memberName,
-                                makeTypeSignature(memberType)
+                                getPrimitiveType(memberType)
                         );
                 commands += "\n";
             }
@@ -861,6 +1150,7 @@ public class CodeGenerator extends Visitor<String> {
         else if((operator == UnaryOperator.predec) || (operator == UnaryOperator.preinc)) {
             BinaryOperator binaryOperator = operator == UnaryOperator.preinc ? BinaryOperator.add : BinaryOperator.sub;
             Expression addition = (new BinaryExpression(unaryExpression.getOperand(), new IntValue(1), binaryOperator));
+            addition.setType(new IntType());
             commands += assignment(new BinaryExpression(unaryExpression.getOperand(), addition, BinaryOperator.assign));
             commands += unaryExpression.getOperand().accept(this);
         }
@@ -868,6 +1158,7 @@ public class CodeGenerator extends Visitor<String> {
             BinaryOperator binaryOperator = operator == UnaryOperator.postinc ? BinaryOperator.add : BinaryOperator.sub;
             commands += unaryExpression.getOperand().accept(this);
             Expression addition = (new BinaryExpression(unaryExpression.getOperand(), new IntValue(1), binaryOperator));
+            addition.setType(new IntType());
             commands += assignment(new BinaryExpression(unaryExpression.getOperand(), addition, BinaryOperator.assign));
         }
         return commands;
@@ -875,36 +1166,29 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
-        Type memberType = objectOrListMemberAccess.accept(expressionTypeChecker);
-        Type instanceType = objectOrListMemberAccess.getInstance().accept(expressionTypeChecker);
+        Type memberType = objectOrListMemberAccess.getType();
+        Type instanceType = objectOrListMemberAccess.getInstance().getType();
         String memberName = objectOrListMemberAccess.getMemberName().getName();
         String commands = "";
         if(instanceType instanceof ClassType) {
-            String className = ((ClassType) instanceType).getClassName().getName();
-            try {
-                SymbolTable classSymbolTable = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true)).getClassSymbolTable();
-                try {
-                    classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += String.format
-                                (
-                                    "getfield %s/%s %s",
-                                    ((ClassType) instanceType).getClassName().getName(),
-                                    memberName,
-                                    makeTypeSignature(memberType)
-                                );
-                    commands += "\n";
-                    commands += convertJavaObjToPrimitive(memberType);
-                    commands += "\n";
-                } catch (ItemNotFoundException memberIsMethod) {
-                    commands += "new Fptr\n";
-                    commands += "dup\n";
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += String.format("ldc \"%s\"\n", memberName);
-                    commands += "invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;)V\n";
-
-                }
-            } catch (ItemNotFoundException classNotFound) {
+            if(objectOrListMemberAccess.getSymbolTableItem() instanceof FieldSymbolTableItem) {
+                commands += objectOrListMemberAccess.getInstance().accept(this);
+                commands += String.format
+                            (
+                                "getfield %s/%s %s",
+                                ((ClassType) instanceType).getClassName().getName(),
+                                memberName,
+                                getPrimitiveType(memberType)
+                            );
+                commands += "\n";
+            }
+            else {
+                commands += "new Fptr\n";
+                commands += "dup\n";
+                commands += objectOrListMemberAccess.getInstance().accept(this);
+                commands += String.format("ldc \"%s\"\n", memberName);
+                commands += String.format("ldc \"%s\"\n", makeFptrSignature((FptrType) memberType));
+                commands += "invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;Ljava/lang/String;)V\n";
             }
         }
         else if(instanceType instanceof ListType) {
@@ -932,13 +1216,8 @@ public class CodeGenerator extends Visitor<String> {
     public String visit(Identifier identifier) {
         String commands = "";
 
-        int slotNumber = slotOf(identifier.getName());
-        Type type = identifier.accept(expressionTypeChecker);
-        String primitiveTypeConverter = convertJavaObjToPrimitive(type);
-        commands += String.format("aload %d\n", slotNumber);
-        commands += !primitiveTypeConverter.equals("") ?
-                    String.format("%s\n", primitiveTypeConverter) :
-                    "";
+        int slotNumber = slotOf(identifier);
+        commands += loadLocal(identifier.getType(), slotNumber) + "\n";
 
         return commands;
     }
@@ -950,7 +1229,7 @@ public class CodeGenerator extends Visitor<String> {
         commands += listAccessByIndex.getIndex().accept(this);
 
         commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-        Type instanceType = listAccessByIndex.getInstance().accept(expressionTypeChecker);
+        Type instanceType = listAccessByIndex.getInstance().getType();
         int typeIndex;
         if (!(listAccessByIndex.getIndex() instanceof IntValue)) {
             typeIndex = 0;
@@ -965,34 +1244,57 @@ public class CodeGenerator extends Visitor<String> {
         return commands;
     }
 
+    // calls of a member method named at the call site are compiled to invokevirtual, only calls of function values go through Fptr
+    private MethodDeclaration directCallTarget(MethodCall methodCall) {
+        if (!(methodCall.getInstance() instanceof ObjectOrListMemberAccess))
+            return null;
+        SymbolTableItem member = ((ObjectOrListMemberAccess) methodCall.getInstance()).getSymbolTableItem();
+        if (!(member instanceof MethodSymbolTableItem))
+            return null;
+        return ((MethodSymbolTableItem) member).getMethodDeclaration();
+    }
+
+    private String directMethodCall(MethodCall methodCall, MethodDeclaration target) {
+        StringBuilder commands = new StringBuilder();
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+        commands.append(receiver.accept(this));
+        for (Expression arg: methodCall.getArgs()) {
+            commands.append(arg.accept(this));
+        }
+        commands.append(String.format(
+                "invokevirtual %s/%s%s\n",
+                ((ClassType) receiver.getType()).getClassName().getName(),
+                target.getMethodName().getName(),
+                makeMethodSignature(target)
+        ));
+        return commands.toString();
+    }
+
     @Override
     public String visit(MethodCall methodCall) {
+        MethodDeclaration target = directCallTarget(methodCall);
+        if (target != null) {
+            return directMethodCall(methodCall, target);
+        }
         StringBuilder commands = new StringBuilder();
-        commands.append(getNewArrayList());
-        int tempSlot = slotOf("");
-        commands.append(String.format("astore %d\n", tempSlot));
         Expression instance = methodCall.getInstance();
-        FptrType instanceType = (FptrType) instance.accept(expressionTypeChecker);
-        commands.append(String.format("%s\n", instance.accept(this)));
-        // instance, method on stack
-
-        for (Expression arg: methodCall.getArgs()) {
-            Type argType = arg.accept(expressionTypeChecker);
-            commands.append(String.format("aload %d\n", tempSlot));
+        FptrType instanceType = (FptrType) instance.getType();
+        // the call site's handle takes the Fptr and the boxed arguments and returns the boxed result
+        ArrayList<Expression> args = methodCall.getArgs();
+        int site = fptrCallSiteArities.size();
+        fptrCallSiteArities.add(args.size());
+        commands.append("getstatic ").append(fptrCallSiteField(site)).append("\n");
+        commands.append(instance.accept(this));
+        StringBuilder argumentString = new StringBuilder();
+        for (Expression arg: args) {
             commands.append(arg.accept(this));
-
-            if (argType instanceof IntType || argType instanceof BoolType) {
-                commands.append(ConvertPrimitiveToJavaObj(argType));
+            if (isPrimitive(arg.getType())) {
+                commands.append(ConvertPrimitiveToJavaObj(arg.getType()));
                 commands.append("\n");
             }
-
-            commands.append("\n");
-            commands.append("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z\n");
-            commands.append("pop\n");
+            argumentString.append("Ljava/lang/Object;");
         }
-
-        commands.append(String.format("aload %d\n", tempSlot));
-        commands.append("invokevirtual Fptr/invoke(Ljava/util/ArrayList;)Ljava/lang/Object;\n");
+        commands.append(String.format("invokevirtual java/lang/invoke/MethodHandle/invokeExact(LFptr;%s)Ljava/lang/Object;\n", argumentString));
 
         Type returnType = instanceType.getReturnType();
         commands.append(castObject(returnType));
@@ -1010,16 +1312,18 @@ public class CodeGenerator extends Visitor<String> {
         commands.append(String.format("new %s\n", className));
         commands.append("dup\n");
         for (Expression arg: newClassInstance.getArgs()) {
-            Type t = arg.accept(expressionTypeChecker);
-            argumentString.append(makeTypeSignature(t));
             commands.append(arg.accept(this));
-            commands.append(ConvertPrimitiveToJavaObj(t));
-            commands.append("\n");
-
+        }
+        // the constructor descriptor follows the declared parameters, not the argument types
+        ConstructorDeclaration constructor = classDeclarations.get(className).getConstructor();
+        if (constructor != null) {
+            for (VarDeclaration arg: constructor.getArgs()) {
+                argumentString.append(getPrimitiveType(arg.getType()));
+            }
         }
         commands.append(
                 String.format(
-                            "invokespecial %s/<init>(%s)V",
+                            "invokespecial %s/<init>(%s)V\n",
                             className,
                             argumentString
                         )
@@ -1036,13 +1340,13 @@ public class CodeGenerator extends Visitor<String> {
     public String visit(ListValue listValue) {
         StringBuilder commands = new StringBuilder();
         commands.append(getNewArrayList());
-        int tempSlot = slotOf("");
+        int tempSlot = temporarySlots.acquire();
         commands.append(String.format("astore %d\n", tempSlot));
         ArrayList<Expression> listElements = listValue.getElements();
         for (Expression listElement : listElements) {
             commands.append(String.format("aload %d\n", tempSlot));
             commands.append(listElement.accept(this));
-            Type elementType = listElement.accept(expressionTypeChecker);
+            Type elementType = listElement.getType();
             commands.append(ConvertPrimitiveToJavaObj(elementType));
             commands.append("\n");
             commands.append("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z\n");
@@ -1052,6 +1356,7 @@ public class CodeGenerator extends Visitor<String> {
         commands.append(getNewList());
         commands.append(String.format("aload %d\n", tempSlot));
         commands.append("invokespecial List/<init>(Ljava/util/ArrayList;)V\n");
+        temporarySlots.release(tempSlot);
         return commands.toString();
     }
 
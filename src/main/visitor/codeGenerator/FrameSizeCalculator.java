@@ -0,0 +1,183 @@
+package main.visitor.codeGenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// computes the operand stack depth and the local variable slots one generated method needs,
+// by following the stack depth along every reachable path of its jasmin commands (from .method to .end method)
+public class FrameSizeCalculator {
+    private final ArrayList<String[]> instructions = new ArrayList<>();
+    private final Map<String, Integer> labels = new HashMap<>();
+    private int maxStack;
+    private int maxLocals;
+
+    public FrameSizeCalculator(List<String> method) {
+        for (String line : method) {
+            String command = line.trim();
+            if(command.isEmpty() || command.startsWith(";"))
+                continue;
+            if(command.startsWith(".method"))
+                maxLocals = parameterSlots(command);
+            else if(command.startsWith("."))
+                continue;
+            else if(command.endsWith(":") && !command.contains(" "))
+                labels.put(command.substring(0, command.length() - 1), instructions.size());
+            else
+                instructions.add(command.split("\\s+", 2));
+        }
+        computeMaxStack();
+        for (String[] instruction : instructions)
+            maxLocals = Math.max(maxLocals, localSlotEnd(instruction));
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    private static int parameterSlots(String methodDirective) {
+        String signature = methodDirective.substring(methodDirective.lastIndexOf(' ') + 1);
+        int slots = argumentSlots(signature.substring(signature.indexOf('(')));
+        return methodDirective.contains(" static ") ? slots : slots + 1;
+    }
+
+    private void computeMaxStack() {
+        if(instructions.isEmpty())
+            return;
+        int[] depths = new int[instructions.size()];
+        Arrays.fill(depths, -1);
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        depths[0] = 0;
+        pending.push(0);
+        while (!pending.isEmpty()) {
+            int index = pending.pop();
+            String[] instruction = instructions.get(index);
+            int depth = depths[index] + stackEffect(instruction);
+            // no instruction the generator emits goes above its resulting depth while it executes
+            maxStack = Math.max(maxStack, depth);
+            if(isBranch(instruction[0]))
+                follow(depths, pending, target(instruction), depth);
+            if(!endsFlow(instruction[0]) && index + 1 < instructions.size())
+                follow(depths, pending, index + 1, depth);
+        }
+    }
+
+    private void follow(int[] depths, ArrayDeque<Integer> pending, int index, int depth) {
+        if(depths[index] >= 0)
+            return;
+        depths[index] = depth;
+        pending.push(index);
+    }
+
+    private int target(String[] instruction) {
+        Integer index = labels.get(instruction[1].trim());
+        if(index == null)
+            throw new IllegalStateException("jump to undefined label " + instruction[1]);
+        return index;
+    }
+
+    private static boolean isBranch(String mnemonic) {
+        return mnemonic.startsWith("if") || mnemonic.equals("goto");
+    }
+
+    private static boolean endsFlow(String mnemonic) {
+        return mnemonic.equals("goto") || mnemonic.endsWith("return") || mnemonic.equals("athrow");
+    }
+
+    private static int stackEffect(String[] instruction) {
+        String mnemonic = instruction[0];
+        switch (mnemonic) {
+            case "nop": case "swap": case "ineg": case "iinc": case "goto": case "return":
+            case "checkcast": case "instanceof": case "anewarray": case "newarray": case "arraylength":
+                return 0;
+            case "aconst_null": case "iconst_m1": case "iconst_0": case "iconst_1": case "iconst_2": case "iconst_3":
+            case "iconst_4": case "iconst_5": case "bipush": case "sipush": case "ldc": case "ldc_w":
+            case "new": case "dup": case "dup_x1": case "dup_x2":
+                return 1;
+            case "dup2":
+                return 2;
+            case "pop": case "istore": case "astore": case "ireturn": case "areturn": case "athrow":
+            case "iadd": case "isub": case "imul": case "idiv": case "irem": case "iand": case "ior": case "ixor":
+            case "aaload": case "iaload": case "ifeq": case "ifne": case "iflt": case "ifge": case "ifgt": case "ifle":
+            case "ifnull": case "ifnonnull": case "monitorenter": case "monitorexit":
+                return -1;
+            case "pop2": case "if_icmpeq": case "if_icmpne": case "if_icmplt": case "if_icmpge": case "if_icmpgt":
+            case "if_icmple": case "if_acmpeq": case "if_acmpne":
+                return -2;
+            case "aastore": case "iastore":
+                return -3;
+            case "getstatic":
+                return typeSlots(fieldDescriptor(instruction));
+            case "putstatic":
+                return -typeSlots(fieldDescriptor(instruction));
+            case "getfield":
+                return typeSlots(fieldDescriptor(instruction)) - 1;
+            case "putfield":
+                return -typeSlots(fieldDescriptor(instruction)) - 1;
+            case "invokevirtual": case "invokespecial": case "invokeinterface":
+                return invocationEffect(instruction) - 1;
+            case "invokestatic":
+                return invocationEffect(instruction);
+        }
+        if(mnemonic.startsWith("iload") || mnemonic.startsWith("aload"))
+            return 1;
+        if(mnemonic.startsWith("istore") || mnemonic.startsWith("astore"))
+            return -1;
+        throw new IllegalStateException("unknown stack effect of " + mnemonic);
+    }
+
+    private static String fieldDescriptor(String[] instruction) {
+        String[] operands = instruction[1].trim().split("\\s+");
+        return operands[operands.length - 1];
+    }
+
+    private static int invocationEffect(String[] instruction) {
+        String method = instruction[1].trim().split("\\s+")[0];
+        String descriptor = method.substring(method.indexOf('('));
+        return typeSlots(descriptor.substring(descriptor.indexOf(')') + 1)) - argumentSlots(descriptor);
+    }
+
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int index = 1;
+        while (descriptor.charAt(index) != ')') {
+            char type = descriptor.charAt(index);
+            slots += type == 'J' || type == 'D' ? 2 : 1;
+            while (descriptor.charAt(index) == '[')
+                index++;
+            if(descriptor.charAt(index) == 'L')
+                index = descriptor.indexOf(';', index);
+            index++;
+        }
+        return slots;
+    }
+
+    private static int typeSlots(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'V': return 0;
+            case 'J': case 'D': return 2;
+            default: return 1;
+        }
+    }
+
+    // one past the highest slot an instruction touches, 0 for instructions that do not use locals
+    private static int localSlotEnd(String[] instruction) {
+        String mnemonic = instruction[0];
+        boolean localAccess = mnemonic.startsWith("iload") || mnemonic.startsWith("aload")
+                || mnemonic.startsWith("istore") || mnemonic.startsWith("astore");
+        int underscore = mnemonic.indexOf('_');
+        if(localAccess && underscore >= 0)
+            return Integer.parseInt(mnemonic.substring(underscore + 1)) + 1;
+        if(localAccess || mnemonic.equals("iinc"))
+            return Integer.parseInt(instruction[1].trim().split("\\s+")[0]) + 1;
+        return 0;
+    }
+
+}
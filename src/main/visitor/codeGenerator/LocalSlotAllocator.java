@@ -0,0 +1,25 @@
+package main.visitor.codeGenerator;
+
+import java.util.PriorityQueue;
+
+// hands out the local variable slots after the arguments and locals of a method to temporaries;
+// a temporary is released once the construct that needs it has been generated, and later ones reuse its slot
+public class LocalSlotAllocator {
+    private final PriorityQueue<Integer> freeSlots = new PriorityQueue<>();
+    private int nextSlot;
+
+    public LocalSlotAllocator(int firstTemporarySlot) {
+        this.nextSlot = firstTemporarySlot;
+    }
+
+    public int acquire() {
+        if(!freeSlots.isEmpty())
+            return freeSlots.poll();
+        return nextSlot++;
+    }
+
+    public void release(int slot) {
+        freeSlots.add(slot);
+    }
+
+}
@@ -0,0 +1,198 @@
+package main.visitor.codeGenerator.backend;
+
+import main.visitor.codeGenerator.classFile.ClassFileException;
+import main.visitor.codeGenerator.classFile.ClassFileWriter;
+import main.visitor.codeGenerator.classFile.MethodWriter;
+import main.visitor.codeGenerator.classFile.Opcodes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// turns the generated jasmin commands directly into class files without writing or parsing .j files
+public class BytecodeBackend implements CodeGeneratorBackend {
+    private final String outputPath;
+    private final Map<String, byte[]> classes = new LinkedHashMap<>();
+    private int numberOfErrors = 0;
+
+    public BytecodeBackend(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+
+    public int getNumberOfErrors() {
+        return numberOfErrors;
+    }
+
+    @Override
+    public void emitClass(String className, ArrayList<String> commands) {
+        try {
+            byte[] bytes = assemble(commands);
+            classes.put(className, bytes);
+            writeClassFile(className, bytes);
+        } catch (ClassFileException | IOException e) {
+            System.out.println(className + ".class: " + e.getMessage());
+            numberOfErrors += 1;
+        }
+    }
+
+    private void writeClassFile(String className, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(this.outputPath, className + ".class"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    public static byte[] assemble(ArrayList<String> commands) {
+        ClassFileWriter classFileWriter = null;
+        MethodWriter methodWriter = null;
+        for (String line : commands) {
+            String command = line.trim();
+            if(command.isEmpty() || command.startsWith(";"))
+                continue;
+            String[] tokens = command.split("\\s+");
+            if(command.startsWith(".class")) {
+                classFileWriter = new ClassFileWriter(accessOf(tokens), tokens[tokens.length - 1]);
+            }
+            else if(classFileWriter == null) {
+                throw new ClassFileException("missing .class directive before " + command);
+            }
+            else if(command.startsWith(".super")) {
+                classFileWriter.setSuperClass(tokens[1]);
+            }
+            else if(command.startsWith(".field")) {
+                classFileWriter.addField(accessOf(tokens), tokens[tokens.length - 2], tokens[tokens.length - 1]);
+            }
+            else if(command.startsWith(".method")) {
+                String signature = tokens[tokens.length - 1];
+                int parenthesis = signature.indexOf('(');
+                methodWriter = classFileWriter.addMethod(accessOf(tokens), signature.substring(0, parenthesis), signature.substring(parenthesis));
+            }
+            else if(methodWriter == null) {
+                throw new ClassFileException("instruction outside of a method: " + command);
+            }
+            else if(command.startsWith(".limit")) {
+                int limit = Integer.parseInt(tokens[2]);
+                if(tokens[1].equals("stack"))
+                    methodWriter.setMaxStack(limit);
+                else
+                    methodWriter.setMaxLocals(limit);
+            }
+            else if(command.startsWith(".end")) {
+                methodWriter = null;
+            }
+            else if(command.endsWith(":") && tokens.length == 1) {
+                methodWriter.label(command.substring(0, command.length() - 1));
+            }
+            else {
+                instruction(methodWriter, tokens[0], command.substring(tokens[0].length()).trim());
+            }
+        }
+        if(classFileWriter == null)
+            throw new ClassFileException("empty class");
+        return classFileWriter.toByteArray();
+    }
+
+    private static int accessOf(String[] tokens) {
+        int access = 0;
+        for (String token : tokens) {
+            if(token.equals("public"))
+                access |= ClassFileWriter.ACC_PUBLIC;
+            else if(token.equals("static"))
+                access |= ClassFileWriter.ACC_STATIC;
+            else if(token.equals("final"))
+                access |= ClassFileWriter.ACC_FINAL;
+        }
+        return access;
+    }
+
+    private static void instruction(MethodWriter methodWriter, String mnemonic, String operand) {
+        int opcode = Opcodes.codeOf(mnemonic);
+        if(opcode < 0)
+            throw new ClassFileException("unknown instruction " + mnemonic);
+        try {
+            if(Opcodes.isLocalVariableAccess(opcode)) {
+                methodWriter.varInsn(opcode, Integer.parseInt(operand));
+            }
+            else if(opcode == Opcodes.IINC) {
+                String[] operands = operand.split("\\s+");
+                methodWriter.iincInsn(Integer.parseInt(operands[0]), Integer.parseInt(operands[1]));
+            }
+            else if(opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH) {
+                methodWriter.intInsn(opcode, Integer.parseInt(operand));
+            }
+            else if(opcode == Opcodes.LDC || opcode == Opcodes.LDC_W) {
+                if(operand.startsWith("\""))
+                    methodWriter.ldcInsn(unescape(operand.substring(1, operand.length() - 1)));
+                else
+                    methodWriter.ldcInsn(Integer.parseInt(operand));
+            }
+            else if(Opcodes.isTypeInstruction(opcode)) {
+                methodWriter.typeInsn(opcode, operand);
+            }
+            else if(Opcodes.isFieldInstruction(opcode)) {
+                String[] operands = operand.split("\\s+");
+                int slash = operands[0].lastIndexOf('/');
+                methodWriter.fieldInsn(opcode, operands[0].substring(0, slash), operands[0].substring(slash + 1), operands[1]);
+            }
+            else if(Opcodes.isMethodInstruction(opcode)) {
+                int parenthesis = operand.indexOf('(');
+                int slash = operand.lastIndexOf('/', parenthesis);
+                methodWriter.methodInsn(opcode, operand.substring(0, slash), operand.substring(slash + 1, parenthesis), operand.substring(parenthesis));
+            }
+            else if(Opcodes.isJump(opcode)) {
+                methodWriter.jumpInsn(opcode, operand);
+            }
+            else {
+                methodWriter.insn(opcode);
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new ClassFileException("malformed instruction " + mnemonic + " " + operand);
+        }
+    }
+
+    // same escapes as jasmin string literals
+    private static String unescape(String literal) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if(c != '\\' || i + 1 == literal.length()) {
+                value.append(c);
+                continue;
+            }
+            char escaped = literal.charAt(++i);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 't': value.append('\t'); break;
+                case 'r': value.append('\r'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    value.append((char) Integer.parseInt(literal.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    if(escaped >= '0' && escaped <= '7') {
+                        int end = i;
+                        while (end < literal.length() && end < i + 3 && literal.charAt(end) >= '0' && literal.charAt(end) <= '7')
+                            end++;
+                        value.append((char) Integer.parseInt(literal.substring(i, end), 8));
+                        i = end - 1;
+                    }
+                    else
+                        value.append(escaped);
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package main.visitor.codeGenerator.backend;
+
+import java.util.ArrayList;
+
+public interface CodeGeneratorBackend {
+
+    // commands are the jasmin lines generated for one class
+    void emitClass(String className, ArrayList<String> commands);
+
+}
@@ -0,0 +1,33 @@
+package main.visitor.codeGenerator.backend;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+public class JasminBackend implements CodeGeneratorBackend {
+    private final String outputPath;
+
+    public JasminBackend(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    @Override
+    public void emitClass(String className, ArrayList<String> commands) {
+        StringBuilder text = new StringBuilder();
+        for (String command : commands) {
+            if(command.startsWith("."))
+                text.append(command);
+            else if(command.endsWith(":"))
+                text.append("\t").append(command);
+            else
+                text.append("\t\t").append(command);
+            text.append("\n");
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(this.outputPath + className + ".j"))) {
+            writer.write(text.toString());
+        } catch (IOException e) {
+            System.out.println(className + ".j: " + e.getMessage());
+        }
+    }
+}
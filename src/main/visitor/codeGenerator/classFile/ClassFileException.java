@@ -0,0 +1,9 @@
+package main.visitor.codeGenerator.classFile;
+
+public class ClassFileException extends RuntimeException {
+
+    public ClassFileException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,74 @@
+package main.visitor.codeGenerator.classFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+public class ClassFileWriter {
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    // class files up to version 49 are checked by the type inferencing verifier and need no stack map frames
+    private static final int MAJOR_VERSION = 49;
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final int access;
+    private final int thisClass;
+    private int superClass;
+    private final ArrayList<int[]> fields = new ArrayList<>();
+    private final ArrayList<MethodWriter> methods = new ArrayList<>();
+
+    public ClassFileWriter(int access, String className) {
+        this.access = access | ACC_SUPER;
+        this.thisClass = constantPool.classRef(className);
+        this.superClass = constantPool.classRef("java/lang/Object");
+    }
+
+    public void setSuperClass(String superClassName) {
+        this.superClass = constantPool.classRef(superClassName);
+    }
+
+    public void addField(int access, String name, String descriptor) {
+        fields.add(new int[]{access, constantPool.utf8(name), constantPool.utf8(descriptor)});
+    }
+
+    public MethodWriter addMethod(int access, String name, String descriptor) {
+        MethodWriter methodWriter = new MethodWriter(constantPool, access, name, descriptor);
+        methods.add(methodWriter);
+        return methodWriter;
+    }
+
+    public byte[] toByteArray() {
+        for(MethodWriter method : methods)
+            method.finish();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(MAJOR_VERSION);
+            constantPool.write(output);
+            output.writeShort(access);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(0);
+            output.writeShort(fields.size());
+            for(int[] field : fields) {
+                output.writeShort(field[0]);
+                output.writeShort(field[1]);
+                output.writeShort(field[2]);
+                output.writeShort(0);
+            }
+            output.writeShort(methods.size());
+            for(MethodWriter method : methods)
+                method.write(output);
+            output.writeShort(0);
+        } catch (IOException e) {
+            throw new ClassFileException(e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+}
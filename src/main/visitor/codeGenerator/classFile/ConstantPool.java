@@ -0,0 +1,124 @@
+package main.visitor.codeGenerator.classFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConstantPool {
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(bytes);
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int size = 1;
+
+    private int newEntry(String key) {
+        int index = size++;
+        if(size > 0xFFFF)
+            throw new ClassFileException("constant pool overflow");
+        indices.put(key, index);
+        return index;
+    }
+
+    public int utf8(String value) {
+        String key = "Utf8_" + value;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        try {
+            output.writeByte(UTF8);
+            output.writeUTF(value);
+        } catch (IOException e) {
+            throw new ClassFileException("constant " + value + " is too long");
+        }
+        return newEntry(key);
+    }
+
+    public int integer(int value) {
+        String key = "Integer_" + value;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        writeEntry(INTEGER, value);
+        return newEntry(key);
+    }
+
+    public int classRef(String internalName) {
+        String key = "Class_" + internalName;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        int nameIndex = utf8(internalName);
+        writeEntry(CLASS, nameIndex, -1);
+        return newEntry(key);
+    }
+
+    public int string(String value) {
+        String key = "String_" + value;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        int valueIndex = utf8(value);
+        writeEntry(STRING, valueIndex, -1);
+        return newEntry(key);
+    }
+
+    public int nameAndType(String name, String descriptor) {
+        String key = "NameAndType_" + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        writeEntry(NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return newEntry(key);
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(FIELD_REF, "Field_", owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(METHOD_REF, "Method_", owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String startKey, String owner, String name, String descriptor) {
+        String key = startKey + owner + "." + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if(index != null)
+            return index;
+        int classIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        writeEntry(tag, classIndex, nameAndTypeIndex);
+        return newEntry(key);
+    }
+
+    private void writeEntry(int tag, int value) {
+        try {
+            output.writeByte(tag);
+            output.writeInt(value);
+        } catch (IOException ignored) { }
+    }
+
+    private void writeEntry(int tag, int first, int second) {
+        try {
+            output.writeByte(tag);
+            output.writeShort(first);
+            if(second >= 0)
+                output.writeShort(second);
+        } catch (IOException ignored) { }
+    }
+
+    public void write(DataOutputStream classOutput) throws IOException {
+        classOutput.writeShort(size);
+        bytes.writeTo(classOutput);
+    }
+}
@@ -0,0 +1,200 @@
+package main.visitor.codeGenerator.classFile;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MethodWriter {
+    private final ConstantPool constantPool;
+    private final int access;
+    private final String name;
+    private final int nameIndex;
+    private final int descriptorIndex;
+    private final int codeAttributeIndex;
+    private int maxStack;
+    private int maxLocals;
+    private byte[] code = new byte[64];
+    private int length = 0;
+    private final Map<String, Integer> labels = new HashMap<>();
+    private final ArrayList<BranchFixup> fixups = new ArrayList<>();
+
+    private static class BranchFixup {
+        final int instructionOffset;
+        final int patchOffset;
+        final String label;
+
+        BranchFixup(int instructionOffset, int patchOffset, String label) {
+            this.instructionOffset = instructionOffset;
+            this.patchOffset = patchOffset;
+            this.label = label;
+        }
+    }
+
+    public MethodWriter(ConstantPool constantPool, int access, String name, String descriptor) {
+        this.constantPool = constantPool;
+        this.access = access;
+        this.name = name;
+        this.nameIndex = constantPool.utf8(name);
+        this.descriptorIndex = constantPool.utf8(descriptor);
+        this.codeAttributeIndex = constantPool.utf8("Code");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setMaxStack(int maxStack) {
+        this.maxStack = maxStack;
+    }
+
+    public void setMaxLocals(int maxLocals) {
+        this.maxLocals = maxLocals;
+    }
+
+    private void putByte(int value) {
+        if(length == code.length)
+            code = Arrays.copyOf(code, code.length * 2);
+        code[length++] = (byte) value;
+    }
+
+    private void putShort(int value) {
+        putByte(value >> 8);
+        putByte(value);
+    }
+
+    public void insn(int opcode) {
+        putByte(opcode);
+    }
+
+    public void intInsn(int opcode, int operand) {
+        putByte(opcode);
+        if(opcode == Opcodes.SIPUSH)
+            putShort(operand);
+        else
+            putByte(operand);
+    }
+
+    public void varInsn(int opcode, int slot) {
+        if(slot < 0 || slot > 0xFFFF)
+            throw new ClassFileException("invalid local variable slot " + slot);
+        if(slot < 4) {
+            int shortFormBase = opcode == Opcodes.ILOAD ? Opcodes.ILOAD_0 :
+                    opcode == Opcodes.ALOAD ? Opcodes.ALOAD_0 :
+                    opcode == Opcodes.ISTORE ? Opcodes.ISTORE_0 : Opcodes.ASTORE_0;
+            putByte(shortFormBase + slot);
+        }
+        else if(slot < 256) {
+            putByte(opcode);
+            putByte(slot);
+        }
+        else {
+            putByte(Opcodes.WIDE);
+            putByte(opcode);
+            putShort(slot);
+        }
+    }
+
+    public void iincInsn(int slot, int increment) {
+        if(slot < 256 && increment >= Byte.MIN_VALUE && increment <= Byte.MAX_VALUE) {
+            putByte(Opcodes.IINC);
+            putByte(slot);
+            putByte(increment);
+        }
+        else {
+            putByte(Opcodes.WIDE);
+            putByte(Opcodes.IINC);
+            putShort(slot);
+            putShort(increment);
+        }
+    }
+
+    private void constantInsn(int index) {
+        if(index < 256) {
+            putByte(Opcodes.LDC);
+            putByte(index);
+        }
+        else {
+            putByte(Opcodes.LDC_W);
+            putShort(index);
+        }
+    }
+
+    public void ldcInsn(int value) {
+        constantInsn(constantPool.integer(value));
+    }
+
+    public void ldcInsn(String value) {
+        constantInsn(constantPool.string(value));
+    }
+
+    public void typeInsn(int opcode, String internalName) {
+        putByte(opcode);
+        putShort(constantPool.classRef(internalName));
+    }
+
+    public void fieldInsn(int opcode, String owner, String name, String descriptor) {
+        putByte(opcode);
+        putShort(constantPool.fieldRef(owner, name, descriptor));
+    }
+
+    public void methodInsn(int opcode, String owner, String name, String descriptor) {
+        putByte(opcode);
+        putShort(constantPool.methodRef(owner, name, descriptor));
+    }
+
+    public void jumpInsn(int opcode, String label) {
+        int instructionOffset = length;
+        putByte(opcode);
+        fixups.add(new BranchFixup(instructionOffset, length, label));
+        putShort(0);
+    }
+
+    public void label(String label) {
+        if(labels.containsKey(label))
+            throw new ClassFileException("label " + label + " defined twice in " + name);
+        labels.put(label, length);
+    }
+
+    private void resolveBranches() {
+        for(BranchFixup fixup : fixups) {
+            Integer target = labels.get(fixup.label);
+            if(target == null)
+                throw new ClassFileException("undefined label " + fixup.label + " in " + name);
+            int offset = target - fixup.instructionOffset;
+            if(offset < Short.MIN_VALUE || offset > Short.MAX_VALUE)
+                throw new ClassFileException("branch to " + fixup.label + " is too far in " + name);
+            code[fixup.patchOffset] = (byte) (offset >> 8);
+            code[fixup.patchOffset + 1] = (byte) offset;
+        }
+        fixups.clear();
+    }
+
+    public int getCodeLength() {
+        return length;
+    }
+
+    // resolves branch offsets once every label of the method is known
+    public void finish() {
+        resolveBranches();
+        if(length > 0xFFFF)
+            throw new ClassFileException("code of " + name + " is too large");
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        output.writeShort(access);
+        output.writeShort(nameIndex);
+        output.writeShort(descriptorIndex);
+        output.writeShort(1);
+        output.writeShort(codeAttributeIndex);
+        output.writeInt(12 + length);
+        output.writeShort(maxStack);
+        output.writeShort(maxLocals);
+        output.writeInt(length);
+        output.write(code, 0, length);
+        output.writeShort(0);
+        output.writeShort(0);
+    }
+}
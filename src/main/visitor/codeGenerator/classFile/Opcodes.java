@@ -0,0 +1,132 @@
+package main.visitor.codeGenerator.classFile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Opcodes {
+    public static final int ACONST_NULL = 1;
+    public static final int ICONST_0 = 3;
+    public static final int BIPUSH = 16;
+    public static final int SIPUSH = 17;
+    public static final int LDC = 18;
+    public static final int LDC_W = 19;
+    public static final int ILOAD = 21;
+    public static final int ALOAD = 25;
+    public static final int ILOAD_0 = 26;
+    public static final int ALOAD_0 = 42;
+    public static final int ISTORE = 54;
+    public static final int ASTORE = 58;
+    public static final int ISTORE_0 = 59;
+    public static final int ASTORE_0 = 75;
+    public static final int IINC = 132;
+    public static final int IFEQ = 153;
+    public static final int IF_ACMPNE = 166;
+    public static final int GOTO = 167;
+    public static final int GETSTATIC = 178;
+    public static final int PUTSTATIC = 179;
+    public static final int GETFIELD = 180;
+    public static final int PUTFIELD = 181;
+    public static final int INVOKEVIRTUAL = 182;
+    public static final int INVOKESPECIAL = 183;
+    public static final int INVOKESTATIC = 184;
+    public static final int NEW = 187;
+    public static final int ANEWARRAY = 189;
+    public static final int CHECKCAST = 192;
+    public static final int INSTANCEOF = 193;
+    public static final int WIDE = 196;
+    public static final int IFNULL = 198;
+    public static final int IFNONNULL = 199;
+
+    private static final Map<String, Integer> codes = new HashMap<>();
+
+    static {
+        String[] simpleInstructions = {
+                "nop", "aconst_null", "iconst_m1", "iconst_0", "iconst_1", "iconst_2", "iconst_3", "iconst_4", "iconst_5"
+        };
+        for(int i = 0; i < simpleInstructions.length; i++)
+            codes.put(simpleInstructions[i], i);
+        codes.put("bipush", BIPUSH);
+        codes.put("sipush", SIPUSH);
+        codes.put("ldc", LDC);
+        codes.put("ldc_w", LDC_W);
+        codes.put("iload", ILOAD);
+        codes.put("aload", ALOAD);
+        for(int i = 0; i < 4; i++) {
+            codes.put("iload_" + i, ILOAD_0 + i);
+            codes.put("aload_" + i, ALOAD_0 + i);
+            codes.put("istore_" + i, ISTORE_0 + i);
+            codes.put("astore_" + i, ASTORE_0 + i);
+        }
+        codes.put("aaload", 50);
+        codes.put("istore", ISTORE);
+        codes.put("astore", ASTORE);
+        codes.put("aastore", 83);
+        codes.put("pop", 87);
+        codes.put("pop2", 88);
+        codes.put("dup", 89);
+        codes.put("dup_x1", 90);
+        codes.put("dup_x2", 91);
+        codes.put("dup2", 92);
+        codes.put("swap", 95);
+        codes.put("iadd", 96);
+        codes.put("isub", 100);
+        codes.put("imul", 104);
+        codes.put("idiv", 108);
+        codes.put("irem", 112);
+        codes.put("ineg", 116);
+        codes.put("iand", 126);
+        codes.put("ior", 128);
+        codes.put("ixor", 130);
+        codes.put("iinc", IINC);
+        String[] jumps = {
+                "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle",
+                "if_icmpeq", "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple",
+                "if_acmpeq", "if_acmpne", "goto"
+        };
+        for(int i = 0; i < jumps.length; i++)
+            codes.put(jumps[i], IFEQ + i);
+        codes.put("ireturn", 172);
+        codes.put("areturn", 176);
+        codes.put("return", 177);
+        codes.put("getstatic", GETSTATIC);
+        codes.put("putstatic", PUTSTATIC);
+        codes.put("getfield", GETFIELD);
+        codes.put("putfield", PUTFIELD);
+        codes.put("invokevirtual", INVOKEVIRTUAL);
+        codes.put("invokespecial", INVOKESPECIAL);
+        codes.put("invokestatic", INVOKESTATIC);
+        codes.put("new", NEW);
+        codes.put("anewarray", ANEWARRAY);
+        codes.put("arraylength", 190);
+        codes.put("athrow", 191);
+        codes.put("checkcast", CHECKCAST);
+        codes.put("instanceof", INSTANCEOF);
+        codes.put("ifnull", IFNULL);
+        codes.put("ifnonnull", IFNONNULL);
+    }
+
+    public static int codeOf(String mnemonic) {
+        Integer code = codes.get(mnemonic);
+        return code == null ? -1 : code;
+    }
+
+    public static boolean isJump(int opcode) {
+        return (opcode >= IFEQ && opcode <= GOTO) || opcode == IFNULL || opcode == IFNONNULL;
+    }
+
+    public static boolean isLocalVariableAccess(int opcode) {
+        return opcode == ILOAD || opcode == ALOAD || opcode == ISTORE || opcode == ASTORE;
+    }
+
+    public static boolean isTypeInstruction(int opcode) {
+        return opcode == NEW || opcode == ANEWARRAY || opcode == CHECKCAST || opcode == INSTANCEOF;
+    }
+
+    public static boolean isFieldInstruction(int opcode) {
+        return opcode >= GETSTATIC && opcode <= PUTFIELD;
+    }
+
+    public static boolean isMethodInstruction(int opcode) {
+        return opcode >= INVOKEVIRTUAL && opcode <= INVOKESTATIC;
+    }
+}
@@ -0,0 +1,48 @@
+package main.visitor.codeGenerator.peephole;
+
+import java.util.List;
+
+// a condition materialized as 0 or 1 that is only tested again:
+//     if<cond> A; iconst_0; goto B; A: iconst_1; B: ifeq C
+// jumps to C directly with if<!cond> C (or if<cond> C for ifne), when A and B are not jumped to from anywhere else
+public class BooleanDiamondRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "boolean diamond tested by ifeq/ifne";
+    }
+
+    @Override
+    public boolean apply(PeepholeCode code, int index) {
+        String jump = code.get(index);
+        if(!Instructions.isConditionalJump(jump))
+            return false;
+        int next = index + 1;
+        // compareExpressions puts an unused label in front of the false branch
+        while (next < code.size() && Instructions.isLabel(code.get(next))
+                && code.jumpsTo(Instructions.labelName(code.get(next))) == 0)
+            next++;
+        if(next + 5 >= code.size())
+            return false;
+        List<String> diamond = code.getLines().subList(next, next + 6);
+        String trueLabel = Instructions.operand(jump);
+        if(!diamond.get(0).equals("iconst_0") || !Instructions.mnemonic(diamond.get(1)).equals("goto")
+                || !diamond.get(2).equals(trueLabel + ":") || !diamond.get(3).equals("iconst_1"))
+            return false;
+        String endLabel = Instructions.operand(diamond.get(1));
+        if(!diamond.get(4).equals(endLabel + ":"))
+            return false;
+        String test = Instructions.mnemonic(diamond.get(5));
+        if(!test.equals("ifeq") && !test.equals("ifne"))
+            return false;
+        if(code.jumpsTo(trueLabel) != 1 || code.jumpsTo(endLabel) != 1)
+            return false;
+        String mnemonic = Instructions.mnemonic(jump);
+        String replacement = (test.equals("ifeq") ? Instructions.negate(mnemonic) : mnemonic)
+                + " " + Instructions.operand(diamond.get(5));
+        code.remove(index + 1, next + 6);
+        code.set(index, replacement);
+        return true;
+    }
+
+}
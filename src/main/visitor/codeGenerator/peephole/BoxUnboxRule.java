@@ -0,0 +1,33 @@
+package main.visitor.codeGenerator.peephole;
+
+// Integer.valueOf or Boolean.valueOf directly followed by the matching unboxing, with an optional checkcast in between
+public class BoxUnboxRule implements PeepholeRule {
+    private static final String[][] BOXES = {
+            {"invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;", "checkcast java/lang/Integer",
+                    "invokevirtual java/lang/Integer/intValue()I"},
+            {"invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;", "checkcast java/lang/Boolean",
+                    "invokevirtual java/lang/Boolean/booleanValue()Z"}
+    };
+
+    @Override
+    public String getName() {
+        return "box then unbox";
+    }
+
+    @Override
+    public boolean apply(PeepholeCode code, int index) {
+        for (String[] box : BOXES) {
+            if(!code.get(index).equals(box[0]))
+                continue;
+            int next = index + 1;
+            if(next < code.size() && code.get(next).equals(box[1]))
+                next++;
+            if(next < code.size() && code.get(next).equals(box[2])) {
+                code.remove(index, next + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
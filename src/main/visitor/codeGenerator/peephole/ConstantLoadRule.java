@@ -0,0 +1,38 @@
+package main.visitor.codeGenerator.peephole;
+
+// ldc of a small int constant becomes iconst_<n>, bipush or sipush, which need no constant pool entry
+public class ConstantLoadRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "small int constant";
+    }
+
+    @Override
+    public boolean apply(PeepholeCode code, int index) {
+        String line = code.get(index);
+        if(!Instructions.mnemonic(line).equals("ldc"))
+            return false;
+        String operand = Instructions.operand(line);
+        if(operand.isEmpty() || operand.startsWith("\""))
+            return false;
+        int value;
+        try {
+            value = Integer.parseInt(operand);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if(value == -1)
+            code.set(index, "iconst_m1");
+        else if(value >= 0 && value <= 5)
+            code.set(index, "iconst_" + value);
+        else if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+            code.set(index, "bipush " + value);
+        else if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+            code.set(index, "sipush " + value);
+        else
+            return false;
+        return true;
+    }
+
+}
@@ -0,0 +1,26 @@
+package main.visitor.codeGenerator.peephole;
+
+// a goto whose target label follows it, with only labels in between, does nothing
+public class GotoNextLabelRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "goto to the next label";
+    }
+
+    @Override
+    public boolean apply(PeepholeCode code, int index) {
+        String line = code.get(index);
+        if(!Instructions.mnemonic(line).equals("goto"))
+            return false;
+        String target = Instructions.operand(line);
+        for (int i = index + 1; i < code.size() && Instructions.isLabel(code.get(i)); i++) {
+            if(Instructions.labelName(code.get(i)).equals(target)) {
+                code.remove(index, index + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
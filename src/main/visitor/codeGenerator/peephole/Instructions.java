@@ -0,0 +1,67 @@
+package main.visitor.codeGenerator.peephole;
+
+// helpers for reading jasmin instruction lines
+public class Instructions {
+
+    public static boolean isLabel(String line) {
+        return line.endsWith(":") && line.indexOf(' ') < 0;
+    }
+
+    public static String labelName(String line) {
+        return line.substring(0, line.length() - 1);
+    }
+
+    public static String mnemonic(String line) {
+        int space = line.indexOf(' ');
+        return space < 0 ? line : line.substring(0, space);
+    }
+
+    public static String operand(String line) {
+        int space = line.indexOf(' ');
+        return space < 0 ? "" : line.substring(space + 1).trim();
+    }
+
+    public static boolean isJump(String line) {
+        String mnemonic = mnemonic(line);
+        return mnemonic.startsWith("if") || mnemonic.equals("goto");
+    }
+
+    public static boolean isConditionalJump(String line) {
+        return isJump(line) && !mnemonic(line).equals("goto");
+    }
+
+    // the local slot a load, store or iinc accesses, null for any other line
+    public static String localSlot(String line) {
+        String mnemonic = mnemonic(line);
+        if(mnemonic.equals("iinc"))
+            return operand(line).split("\\s+")[0];
+        boolean localAccess = mnemonic.startsWith("iload") || mnemonic.startsWith("aload")
+                || mnemonic.startsWith("istore") || mnemonic.startsWith("astore");
+        if(!localAccess)
+            return null;
+        int underscore = mnemonic.indexOf('_');
+        if(underscore >= 0)
+            return mnemonic.substring(underscore + 1);
+        return operand(line);
+    }
+
+    // the jump taken exactly when the given conditional jump is not
+    public static String negate(String mnemonic) {
+        if(mnemonic.equals("ifnull"))
+            return "ifnonnull";
+        if(mnemonic.equals("ifnonnull"))
+            return "ifnull";
+        String condition = mnemonic.substring(mnemonic.length() - 2);
+        String prefix = mnemonic.substring(0, mnemonic.length() - 2);
+        switch (condition) {
+            case "eq": return prefix + "ne";
+            case "ne": return prefix + "eq";
+            case "lt": return prefix + "ge";
+            case "ge": return prefix + "lt";
+            case "gt": return prefix + "le";
+            case "le": return prefix + "gt";
+            default: throw new IllegalArgumentException("not a conditional jump: " + mnemonic);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package main.visitor.codeGenerator.peephole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the instructions and labels of a method body being optimized, together with how often every label is jumped to and
+// every local slot is accessed; rules rewrite the code through set and remove, which keep both counts up to date
+public class PeepholeCode {
+    private final ArrayList<String> lines;
+    private final Map<String, Integer> jumps = new HashMap<>();
+    private final Map<String, Integer> slotUses = new HashMap<>();
+
+    public PeepholeCode(ArrayList<String> lines) {
+        this.lines = lines;
+        for (String line : lines)
+            count(line, 1);
+    }
+
+    public ArrayList<String> getLines() {
+        return lines;
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public String get(int index) {
+        return lines.get(index);
+    }
+
+    public void set(int index, String line) {
+        count(lines.get(index), -1);
+        lines.set(index, line);
+        count(line, 1);
+    }
+
+    // removes the lines from index from up to but not including index to
+    public void remove(int from, int to) {
+        List<String> removed = lines.subList(from, to);
+        for (String line : removed)
+            count(line, -1);
+        removed.clear();
+    }
+
+    public int jumpsTo(String label) {
+        return jumps.getOrDefault(label, 0);
+    }
+
+    public int slotUses(String slot) {
+        return slotUses.getOrDefault(slot, 0);
+    }
+
+    private void count(String line, int delta) {
+        if(Instructions.isJump(line))
+            jumps.merge(Instructions.operand(line), delta, Integer::sum);
+        String slot = Instructions.localSlot(line);
+        if(slot != null)
+            slotUses.merge(slot, delta, Integer::sum);
+    }
+
+}
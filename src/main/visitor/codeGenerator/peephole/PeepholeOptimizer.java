@@ -0,0 +1,77 @@
+package main.visitor.codeGenerator.peephole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// rewrites the instructions of a method body with a set of rules until none of them applies,
+// counting how often every rule fired over all methods it has optimized
+public class PeepholeOptimizer {
+    // no rule looks further back than this from where it starts matching, so a rewrite can only enable one this close
+    private static final int LOOKBEHIND = 8;
+
+    private final ArrayList<PeepholeRule> rules = new ArrayList<>();
+    private final Map<String, Integer> counters = new LinkedHashMap<>();
+    private long nanos;
+
+    public static PeepholeOptimizer withDefaultRules() {
+        PeepholeOptimizer optimizer = new PeepholeOptimizer();
+        optimizer.addRule(new BoxUnboxRule());
+        optimizer.addRule(new StoreLoadRule());
+        optimizer.addRule(new ConstantLoadRule());
+        optimizer.addRule(new GotoNextLabelRule());
+        optimizer.addRule(new BooleanDiamondRule());
+        return optimizer;
+    }
+
+    public void addRule(PeepholeRule rule) {
+        rules.add(rule);
+        counters.put(rule.getName(), 0);
+    }
+
+    public Map<String, Integer> getCounters() {
+        return counters;
+    }
+
+    // total time spent optimizing
+    public long getNanos() {
+        return nanos;
+    }
+
+    // blank lines and comments are dropped, the rules only see instructions and labels
+    public ArrayList<String> optimize(List<String> body) {
+        long start = System.nanoTime();
+        ArrayList<String> lines = new ArrayList<>();
+        for (String line : body) {
+            String command = line.trim();
+            if(!command.isEmpty() && !command.startsWith(";"))
+                lines.add(command);
+        }
+        PeepholeCode code = new PeepholeCode(lines);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int index = 0;
+            while (index < code.size()) {
+                boolean rewritten = false;
+                for (PeepholeRule rule : rules) {
+                    if(index < code.size() && rule.apply(code, index)) {
+                        counters.merge(rule.getName(), 1, Integer::sum);
+                        rewritten = true;
+                    }
+                }
+                // resume just before the rewrite instead of starting the method over
+                if(rewritten) {
+                    changed = true;
+                    index = Math.max(0, index - LOOKBEHIND);
+                } else {
+                    index++;
+                }
+            }
+        }
+        nanos += System.nanoTime() - start;
+        return code.getLines();
+    }
+
+}
@@ -0,0 +1,11 @@
+package main.visitor.codeGenerator.peephole;
+
+// one rewrite of the peephole optimizer; code holds the trimmed instructions and labels of a single method body
+public interface PeepholeRule {
+
+    String getName();
+
+    // rewrites the sequence starting at index in place and returns whether it changed anything
+    boolean apply(PeepholeCode code, int index);
+
+}
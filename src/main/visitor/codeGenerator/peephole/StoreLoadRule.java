@@ -0,0 +1,32 @@
+package main.visitor.codeGenerator.peephole;
+
+// a store directly followed by a load of the same slot, when nothing else in the method uses that slot,
+// leaves the value on the stack where it already was
+public class StoreLoadRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "store then load of an unused slot";
+    }
+
+    @Override
+    public boolean apply(PeepholeCode code, int index) {
+        if(index + 1 >= code.size())
+            return false;
+        String store = code.get(index);
+        String load = code.get(index + 1);
+        char kind = store.charAt(0);
+        if((kind != 'a' && kind != 'i') || !Instructions.mnemonic(store).equals(kind + "store"))
+            return false;
+        if(!Instructions.mnemonic(load).equals(kind + "load"))
+            return false;
+        String slot = Instructions.operand(store);
+        if(!Instructions.operand(load).equals(slot))
+            return false;
+        if(code.slotUses(slot) != 2)
+            return false;
+        code.remove(index, index + 2);
+        return true;
+    }
+
+}
@@ -23,6 +23,7 @@ public class NameAnalyzer {
         this.linkParentSymbolTables();
         NameChecker nameChecker = new NameChecker(classHierarchy);
         this.program.accept(nameChecker);
+        this.program.accept(new NameBinder());
     }
 
     private void linkParentSymbolTables() {
@@ -44,6 +45,7 @@ public class NameAnalyzer {
                 thisClassSTI.getClassSymbolTable().pre = parentSTI.getClassSymbolTable();
             } catch (ItemNotFoundException | GraphDoesNotContainNodeException ignored) { }
         }
+        classHierarchy.freeze();
         this.classHierarchy = classHierarchy;
     }
 
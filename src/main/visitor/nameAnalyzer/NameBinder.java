@@ -0,0 +1,86 @@
+package main.visitor.nameAnalyzer;
+
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.ObjectOrListMemberAccess;
+import main.ast.nodes.expression.ThisClass;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.LocalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.visitor.TreeWalker;
+
+// attaches the symbol table item of every local variable use and of every member access on this,
+// so later passes read the binding instead of searching the symbol tables
+public class NameBinder extends TreeWalker {
+    private SymbolTable classSymbolTable;
+    private SymbolTable methodSymbolTable;
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        try {
+            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + classDeclaration.getClassName().getName(), true);
+            this.classSymbolTable = classSymbolTableItem.getClassSymbolTable();
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+        return super.visit(classDeclaration);
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        try {
+            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + methodDeclaration.getMethodName().getName(), true);
+            this.methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+        int slot = 1;
+        for(VarDeclaration arg : methodDeclaration.getArgs())
+            bindDeclaration(arg, slot++);
+        for(VarDeclaration localVar : methodDeclaration.getLocalVars())
+            bindDeclaration(localVar, slot++);
+        super.visit(methodDeclaration);
+        this.methodSymbolTable = null;
+        return null;
+    }
+
+    private void bindDeclaration(VarDeclaration varDeclaration, int slot) {
+        Identifier varName = varDeclaration.getVarName();
+        varName.accept(this);
+        if(varName.getSymbolTableItem() != null)
+            ((LocalVariableSymbolTableItem) varName.getSymbolTableItem()).setSlot(slot);
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        if(methodSymbolTable == null)
+            return null;
+        try {
+            identifier.setSymbolTableItem(methodSymbolTable.getItem(LocalVariableSymbolTableItem.START_KEY + identifier.getName(), true));
+        } catch (ItemNotFoundException ignored) {
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        if(objectOrListMemberAccess.getInstance() instanceof ThisClass) {
+            String memberName = objectOrListMemberAccess.getMemberName().getName();
+            try {
+                objectOrListMemberAccess.setSymbolTableItem(classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true));
+            } catch (ItemNotFoundException memberNotField) {
+                try {
+                    objectOrListMemberAccess.setSymbolTableItem(classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + memberName, true));
+                } catch (ItemNotFoundException ignored) {
+                }
+            }
+        }
+        return super.visit(objectOrListMemberAccess);
+    }
+
+}
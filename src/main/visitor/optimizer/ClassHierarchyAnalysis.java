@@ -0,0 +1,110 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// whole program class hierarchy analysis: marks the classes no class of the program extends and the methods no subclass
+// redefines as final, so the generated classes tell the jvm that a call has a single target and later passes can rely on it
+public class ClassHierarchyAnalysis implements OptimizationPass {
+    public static final String NAME = "class hierarchy analysis";
+
+    private final ArrayList<String> decisions = new ArrayList<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getLevel() {
+        return 2;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    @Override
+    public int run(Program program) {
+        Map<String, ArrayList<ClassDeclaration>> children = childrenOf(program);
+        int finals = 0;
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            ArrayList<ClassDeclaration> subclasses = subclassesOf(classDeclaration, children);
+            classDeclaration.setIsFinal(subclasses.isEmpty());
+            if(subclasses.isEmpty()) {
+                finals++;
+                decisions.add(className(classDeclaration) + ": final, no class extends it");
+            }
+            for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+                ClassDeclaration redefining = redefiningClass(methodDeclaration, subclasses);
+                methodDeclaration.setIsFinal(redefining == null);
+                if(redefining == null)
+                    finals++;
+                else
+                    decisions.add(className(classDeclaration) + "." + methodDeclaration.getMethodName().getName()
+                            + ": virtual, redefined in " + className(redefining));
+            }
+        }
+        return finals;
+    }
+
+    private static String className(ClassDeclaration classDeclaration) {
+        return classDeclaration.getClassName().getName();
+    }
+
+    // the classes extending each class, by the name of the class they extend
+    private static Map<String, ArrayList<ClassDeclaration>> childrenOf(Program program) {
+        Map<String, ArrayList<ClassDeclaration>> children = new HashMap<>();
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            if(classDeclaration.getParentClassName() != null)
+                children.computeIfAbsent(classDeclaration.getParentClassName().getName(), parent -> new ArrayList<>()).add(classDeclaration);
+        }
+        return children;
+    }
+
+    // walks down from the class without recursion, hierarchies can be as deep as the program has classes
+    private static ArrayList<ClassDeclaration> subclassesOf(ClassDeclaration classDeclaration,
+                                                            Map<String, ArrayList<ClassDeclaration>> children) {
+        ArrayList<ClassDeclaration> subclasses = new ArrayList<>();
+        Set<ClassDeclaration> visited = new HashSet<>();
+        ArrayDeque<ClassDeclaration> pending = new ArrayDeque<>();
+        pending.push(classDeclaration);
+        while(!pending.isEmpty()) {
+            for(ClassDeclaration child : children.getOrDefault(className(pending.pop()), new ArrayList<>())) {
+                if(child != classDeclaration && visited.add(child)) {
+                    subclasses.add(child);
+                    pending.push(child);
+                }
+            }
+        }
+        return subclasses;
+    }
+
+    private static ClassDeclaration redefiningClass(MethodDeclaration method, ArrayList<ClassDeclaration> subclasses) {
+        String methodName = method.getMethodName().getName();
+        for(ClassDeclaration subclass : subclasses) {
+            for(MethodDeclaration methodDeclaration : subclass.getMethods()) {
+                if(methodDeclaration.getMethodName().getName().equals(methodName))
+                    return subclass;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,256 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.BinaryExpression;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.UnaryExpression;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.Value;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.IntType;
+import main.symbolTable.items.SymbolTableItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// rewrites the type checked tree: folds int and bool operations on constants, propagates locals that are assigned a
+// constant once before any other use, and drops branches of known conditions and statements after return, break or continue
+public class ConstantFolder extends TreeRewriter implements OptimizationPass {
+    private final Map<SymbolTableItem, Value> constants = new HashMap<>();
+    private int changes;
+
+    public int getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String getName() {
+        return "constant folding";
+    }
+
+    @Override
+    public int getLevel() {
+        return 1;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getDecisions() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int run(Program program) {
+        int changesBefore = changes;
+        program.accept(this);
+        return changes - changesBefore;
+    }
+
+    // folding can make a local constant and propagating it can fold more, so both run until nothing changes
+    @Override
+    public Node visit(MethodDeclaration methodDeclaration) {
+        do {
+            methodDeclaration.setBody(rewriteStatements(methodDeclaration.getBody()));
+            constants.clear();
+        } while (propagateConstantLocals(methodDeclaration));
+        return methodDeclaration;
+    }
+
+    // a local qualifies when its only write is a top level assignment of a constant and it does not appear before it,
+    // every read then sees the constant and the assignment itself is dropped
+    private boolean propagateConstantLocals(MethodDeclaration methodDeclaration) {
+        LocalVariableUses uses = new LocalVariableUses(methodDeclaration);
+        ArrayList<Statement> body = methodDeclaration.getBody();
+        ArrayList<Statement> remaining = new ArrayList<>();
+        for(int i = 0; i < body.size(); i++) {
+            SymbolTableItem local = constantAssignmentTarget(body.get(i), methodDeclaration);
+            if(local != null && uses.getWrites(local) == 1 && uses.getFirstStatement(local) == i) {
+                constants.put(local, (Value) ((AssignmentStmt) body.get(i)).getrValue());
+                changes++;
+                continue;
+            }
+            remaining.add(body.get(i));
+        }
+        if(constants.isEmpty())
+            return false;
+        methodDeclaration.setBody(remaining);
+        return true;
+    }
+
+    private SymbolTableItem constantAssignmentTarget(Statement statement, MethodDeclaration methodDeclaration) {
+        if(!(statement instanceof AssignmentStmt))
+            return null;
+        AssignmentStmt assignmentStmt = (AssignmentStmt) statement;
+        if(!(assignmentStmt.getlValue() instanceof Identifier) || !isConstant(assignmentStmt.getrValue()))
+            return null;
+        SymbolTableItem item = ((Identifier) assignmentStmt.getlValue()).getSymbolTableItem();
+        for(VarDeclaration localVar : methodDeclaration.getLocalVars()) {
+            if(localVar.getVarName().getSymbolTableItem() == item && item != null)
+                return item;
+        }
+        return null;
+    }
+
+    private static boolean isConstant(Expression expression) {
+        return expression instanceof IntValue || expression instanceof BoolValue;
+    }
+
+    // statements after return, break or continue never run
+    @Override
+    protected ArrayList<Statement> rewriteStatements(ArrayList<Statement> statements) {
+        ArrayList<Statement> simplified = new ArrayList<>();
+        for(int i = 0; i < statements.size(); i++) {
+            Statement statement = rewrite(statements.get(i));
+            if(statement == null)
+                continue;
+            simplified.add(statement);
+            boolean jumps = statement instanceof ReturnStmt || statement instanceof BreakStmt || statement instanceof ContinueStmt;
+            if(jumps && i + 1 < statements.size()) {
+                changes++;
+                break;
+            }
+        }
+        return simplified;
+    }
+
+    private Expression intValue(int constant, Node replaced) {
+        IntValue intValue = new IntValue(constant);
+        intValue.setType(new IntType());
+        intValue.setLine(replaced.getLine());
+        changes++;
+        return intValue;
+    }
+
+    private Expression boolValue(boolean constant, Node replaced) {
+        BoolValue boolValue = new BoolValue(constant);
+        boolValue.setType(new BoolType());
+        boolValue.setLine(replaced.getLine());
+        changes++;
+        return boolValue;
+    }
+
+    @Override
+    public Node visit(ConditionalStmt conditionalStmt) {
+        conditionalStmt.setCondition(rewrite(conditionalStmt.getCondition()));
+        if(conditionalStmt.getCondition() instanceof BoolValue) {
+            changes++;
+            if(((BoolValue) conditionalStmt.getCondition()).getConstant())
+                return rewrite(conditionalStmt.getThenBody());
+            return rewrite(conditionalStmt.getElseBody());
+        }
+        conditionalStmt.setThenBody(rewriteBody(conditionalStmt.getThenBody()));
+        conditionalStmt.setElseBody(rewrite(conditionalStmt.getElseBody()));
+        return conditionalStmt;
+    }
+
+    // a loop whose condition is false only runs its initialization, a true condition is the same as no condition
+    @Override
+    public Node visit(ForStmt forStmt) {
+        if(forStmt.getInitialize() != null) {
+            forStmt.getInitialize().accept(this);
+        }
+        if(forStmt.getCondition() != null) {
+            forStmt.setCondition(rewrite(forStmt.getCondition()));
+            if(forStmt.getCondition() instanceof BoolValue) {
+                changes++;
+                if(!((BoolValue) forStmt.getCondition()).getConstant())
+                    return forStmt.getInitialize();
+                forStmt.setCondition(null);
+            }
+        }
+        if(forStmt.getUpdate() != null) {
+            forStmt.getUpdate().accept(this);
+        }
+        forStmt.setBody(rewriteBody(forStmt.getBody()));
+        return forStmt;
+    }
+
+    @Override
+    public Node visit(BinaryExpression binaryExpression) {
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        if(operator == BinaryOperator.assign)
+            return super.visit(binaryExpression);
+        Expression first = rewrite(binaryExpression.getFirstOperand());
+        Expression second = rewrite(binaryExpression.getSecondOperand());
+        binaryExpression.setFirstOperand(first);
+        binaryExpression.setSecondOperand(second);
+        if(first instanceof IntValue && second instanceof IntValue)
+            return foldInts(binaryExpression, ((IntValue) first).getConstant(), ((IntValue) second).getConstant());
+        // the second operand of && and || only runs when the first does not decide the result
+        if((operator == BinaryOperator.and || operator == BinaryOperator.or) && first instanceof BoolValue) {
+            boolean deciding = operator == BinaryOperator.or;
+            if(((BoolValue) first).getConstant() == deciding)
+                return boolValue(deciding, binaryExpression);
+            changes++;
+            return second;
+        }
+        if(first instanceof BoolValue && second instanceof BoolValue) {
+            boolean firstConstant = ((BoolValue) first).getConstant();
+            boolean secondConstant = ((BoolValue) second).getConstant();
+            if(operator == BinaryOperator.eq)
+                return boolValue(firstConstant == secondConstant, binaryExpression);
+            if(operator == BinaryOperator.neq)
+                return boolValue(firstConstant != secondConstant, binaryExpression);
+        }
+        return binaryExpression;
+    }
+
+    // wraps around like the jvm does, divisions by zero are left to fail at run time
+    private Expression foldInts(BinaryExpression binaryExpression, int first, int second) {
+        switch (binaryExpression.getBinaryOperator()) {
+            case add: return intValue(first + second, binaryExpression);
+            case sub: return intValue(first - second, binaryExpression);
+            case mult: return intValue(first * second, binaryExpression);
+            case div: return second == 0 ? binaryExpression : intValue(first / second, binaryExpression);
+            case mod: return second == 0 ? binaryExpression : intValue(first % second, binaryExpression);
+            case lt: return boolValue(first < second, binaryExpression);
+            case gt: return boolValue(first > second, binaryExpression);
+            case eq: return boolValue(first == second, binaryExpression);
+            case neq: return boolValue(first != second, binaryExpression);
+            default: return binaryExpression;
+        }
+    }
+
+    @Override
+    public Node visit(UnaryExpression unaryExpression) {
+        UnaryOperator operator = unaryExpression.getOperator();
+        if(operator != UnaryOperator.not && operator != UnaryOperator.minus)
+            return super.visit(unaryExpression);
+        Expression operand = rewrite(unaryExpression.getOperand());
+        unaryExpression.setOperand(operand);
+        if(operator == UnaryOperator.not && operand instanceof BoolValue)
+            return boolValue(!((BoolValue) operand).getConstant(), unaryExpression);
+        if(operator == UnaryOperator.minus && operand instanceof IntValue)
+            return intValue(-((IntValue) operand).getConstant(), unaryExpression);
+        return unaryExpression;
+    }
+
+    @Override
+    public Node visit(Identifier identifier) {
+        Value constant = constants.get(identifier.getSymbolTableItem());
+        if(constant instanceof IntValue)
+            return intValue(((IntValue) constant).getConstant(), identifier);
+        if(constant instanceof BoolValue)
+            return boolValue(((BoolValue) constant).getConstant(), identifier);
+        return identifier;
+    }
+
+}
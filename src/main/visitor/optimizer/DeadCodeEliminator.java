@@ -0,0 +1,178 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.ListAccessByIndex;
+import main.ast.nodes.expression.MethodCall;
+import main.ast.nodes.expression.NewClassInstance;
+import main.ast.nodes.expression.ObjectOrListMemberAccess;
+import main.ast.types.Type;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.ClassType;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.visitor.TreeWalker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// whole program reachability from the constructor of Main: a method is kept when reachable code calls it or takes it as a
+// function pointer, a class when reachable code creates it or names it in a type, along with its parents, fields and constructor
+// sophia does not let subclasses redefine methods, so every call has the single target its symbol table item points to
+public class DeadCodeEliminator extends TreeWalker implements OptimizationPass {
+    public static final String NAME = "dead code elimination";
+    private static final String MAIN_CLASS = "Main";
+
+    private final Map<String, ClassDeclaration> classes = new HashMap<>();
+    private final Map<MethodDeclaration, ClassDeclaration> owners = new HashMap<>();
+    private final Set<ClassDeclaration> reachableClasses = new HashSet<>();
+    private final Set<MethodDeclaration> reachableMethods = new HashSet<>();
+    private final ArrayDeque<MethodDeclaration> pending = new ArrayDeque<>();
+    private final ArrayList<String> decisions = new ArrayList<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getLevel() {
+        return 2;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    @Override
+    public int run(Program program) {
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            classes.put(classDeclaration.getClassName().getName(), classDeclaration);
+            for(MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+                owners.put(methodDeclaration, classDeclaration);
+        }
+        if(!classes.containsKey(MAIN_CLASS))
+            return 0;
+        reachClass(classes.get(MAIN_CLASS));
+        while(!pending.isEmpty())
+            pending.poll().accept(this);
+
+        int dropped = 0;
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            String className = classDeclaration.getClassName().getName();
+            boolean reachable = reachableClasses.contains(classDeclaration);
+            classDeclaration.setIsReachable(reachable);
+            if(!reachable) {
+                dropped++;
+                decisions.add(className + ": dropped, never created or named in a reachable type");
+            }
+            for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+                methodDeclaration.setIsReachable(reachableMethods.contains(methodDeclaration));
+                if(reachable && !methodDeclaration.getIsReachable()) {
+                    dropped++;
+                    decisions.add(className + "." + methodDeclaration.getMethodName().getName() + ": dropped, never called");
+                }
+            }
+        }
+        return dropped;
+    }
+
+    // the jvm loads the parent of a class and the classes of its fields, and every class file gets a constructor
+    private void reachClass(ClassDeclaration classDeclaration) {
+        if(classDeclaration == null || !reachableClasses.add(classDeclaration))
+            return;
+        if(classDeclaration.getParentClassName() != null)
+            reachClass(classes.get(classDeclaration.getParentClassName().getName()));
+        for(FieldDeclaration fieldDeclaration : classDeclaration.getFields())
+            reachType(fieldDeclaration.getVarDeclaration().getType());
+        if(classDeclaration.getConstructor() != null)
+            reachMethod(classDeclaration.getConstructor());
+    }
+
+    private void reachMethod(MethodDeclaration methodDeclaration) {
+        if(methodDeclaration != null && reachableMethods.add(methodDeclaration))
+            pending.add(methodDeclaration);
+    }
+
+    private void reachType(Type type) {
+        if(type instanceof ClassType) {
+            reachClass(classes.get(((ClassType) type).getClassName().getName()));
+        }
+        else if(type instanceof ListType) {
+            for(ListNameType elementType : ((ListType) type).getElementsTypes())
+                reachType(elementType.getType());
+        }
+        else if(type instanceof FptrType) {
+            for(Type argumentType : ((FptrType) type).getArgumentsTypes())
+                reachType(argumentType);
+            reachType(((FptrType) type).getReturnType());
+        }
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        reachType(methodDeclaration.getReturnType());
+        return super.visit(methodDeclaration);
+    }
+
+    @Override
+    public Void visit(VarDeclaration varDeclaration) {
+        reachType(varDeclaration.getType());
+        return null;
+    }
+
+    // calls and function pointers both start from a member access of the method
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        reachType(objectOrListMemberAccess.getInstance().getType());
+        reachType(objectOrListMemberAccess.getType());
+        if(objectOrListMemberAccess.getSymbolTableItem() instanceof MethodSymbolTableItem) {
+            MethodDeclaration method = ((MethodSymbolTableItem) objectOrListMemberAccess.getSymbolTableItem()).getMethodDeclaration();
+            reachClass(owners.get(method));
+            reachMethod(method);
+        }
+        return super.visit(objectOrListMemberAccess);
+    }
+
+    @Override
+    public Void visit(MethodCall methodCall) {
+        reachType(methodCall.getType());
+        return super.visit(methodCall);
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        reachType(newClassInstance.getClassType());
+        return super.visit(newClassInstance);
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        reachType(listAccessByIndex.getType());
+        return super.visit(listAccessByIndex);
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        reachType(identifier.getType());
+        return null;
+    }
+
+}
@@ -0,0 +1,148 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.MethodCall;
+import main.ast.nodes.expression.ObjectOrListMemberAccess;
+import main.ast.nodes.expression.ThisClass;
+import main.ast.nodes.statement.AssignmentStmt;
+import main.ast.nodes.statement.MethodCallStmt;
+import main.ast.nodes.statement.Statement;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// turns calls through a function pointer local with a single known target into direct calls of that method
+// the local has to be assigned a method of this, of an argument that is never assigned or of a local assigned once before,
+// by its only write, a top level statement that comes before any other use of it
+public class Devirtualizer extends TreeRewriter implements OptimizationPass {
+    private final Map<SymbolTableItem, ObjectOrListMemberAccess> targets = new HashMap<>();
+    private final ArrayList<String> decisions = new ArrayList<>();
+    private ClassDeclaration currentClass;
+    private MethodDeclaration currentMethod;
+    private int devirtualizedCalls;
+
+    @Override
+    public String getName() {
+        return "devirtualization";
+    }
+
+    @Override
+    public int getLevel() {
+        return 2;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(ClassHierarchyAnalysis.NAME);
+    }
+
+    @Override
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    @Override
+    public int run(Program program) {
+        int devirtualizedBefore = devirtualizedCalls;
+        program.accept(this);
+        return devirtualizedCalls - devirtualizedBefore;
+    }
+
+    @Override
+    public Node visit(ClassDeclaration classDeclaration) {
+        currentClass = classDeclaration;
+        return super.visit(classDeclaration);
+    }
+
+    @Override
+    public Node visit(MethodDeclaration methodDeclaration) {
+        currentMethod = methodDeclaration;
+        findTargets(methodDeclaration);
+        super.visit(methodDeclaration);
+        targets.clear();
+        return methodDeclaration;
+    }
+
+    private void findTargets(MethodDeclaration methodDeclaration) {
+        LocalVariableUses uses = new LocalVariableUses(methodDeclaration);
+        ArrayList<Statement> body = methodDeclaration.getBody();
+        for(int i = 0; i < body.size(); i++) {
+            if(!(body.get(i) instanceof AssignmentStmt))
+                continue;
+            AssignmentStmt assignmentStmt = (AssignmentStmt) body.get(i);
+            if(!(assignmentStmt.getlValue() instanceof Identifier) || !(assignmentStmt.getrValue() instanceof ObjectOrListMemberAccess))
+                continue;
+            SymbolTableItem local = ((Identifier) assignmentStmt.getlValue()).getSymbolTableItem();
+            ObjectOrListMemberAccess method = (ObjectOrListMemberAccess) assignmentStmt.getrValue();
+            if(!(method.getSymbolTableItem() instanceof MethodSymbolTableItem) || !isLocal(local, methodDeclaration.getLocalVars()))
+                continue;
+            if(uses.getWrites(local) == 1 && uses.getFirstStatement(local) == i && isStableBefore(method.getInstance(), i, uses))
+                targets.put(local, method);
+        }
+    }
+
+    private static boolean isLocal(SymbolTableItem item, ArrayList<VarDeclaration> declarations) {
+        for(VarDeclaration declaration : declarations) {
+            if(item != null && declaration.getVarName().getSymbolTableItem() == item)
+                return true;
+        }
+        return false;
+    }
+
+    // the receiver holds the same object from the statement on
+    private boolean isStableBefore(Expression receiver, int statement, LocalVariableUses uses) {
+        if(receiver instanceof ThisClass)
+            return true;
+        if(!(receiver instanceof Identifier))
+            return false;
+        SymbolTableItem variable = ((Identifier) receiver).getSymbolTableItem();
+        if(isLocal(variable, currentMethod.getArgs()))
+            return uses.getWrites(variable) == 0;
+        if(!isLocal(variable, currentMethod.getLocalVars()) || uses.getWrites(variable) != 1)
+            return false;
+        int assignment = uses.getFirstStatement(variable);
+        if(assignment < 0 || assignment >= statement)
+            return false;
+        Statement first = currentMethod.getBody().get(assignment);
+        return first instanceof AssignmentStmt && ((AssignmentStmt) first).getlValue() instanceof Identifier
+                && ((Identifier) ((AssignmentStmt) first).getlValue()).getSymbolTableItem() == variable;
+    }
+
+    @Override
+    public Node visit(MethodCallStmt methodCallStmt) {
+        devirtualize(methodCallStmt.getMethodCall());
+        return methodCallStmt;
+    }
+
+    @Override
+    public Node visit(MethodCall methodCall) {
+        devirtualize(methodCall);
+        return methodCall;
+    }
+
+    private void devirtualize(MethodCall methodCall) {
+        rewriteCall(methodCall);
+        if(!(methodCall.getInstance() instanceof Identifier))
+            return;
+        Identifier pointer = (Identifier) methodCall.getInstance();
+        ObjectOrListMemberAccess target = targets.get(pointer.getSymbolTableItem());
+        if(target == null)
+            return;
+        methodCall.setInstance(new TreeCopier().copy(target));
+        devirtualizedCalls++;
+        decisions.add(String.format("line %d: call through %s in %s.%s is a direct call of %s", methodCall.getLine(), pointer.getName(),
+                currentClass.getClassName().getName(), currentMethod.getMethodName().getName(), target.getMemberName().getName()));
+    }
+
+}
@@ -0,0 +1,316 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.types.NullType;
+import main.ast.types.Type;
+import main.ast.types.list.ListType;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.LocalVariableSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.utils.NodeCounter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// replaces calls of small methods that class hierarchy analysis found final by their bodies
+// a method that only returns a pure expression is inlined where it is called on this or on a local variable,
+// a void method of straight line statements where it is called as a statement on this, with its parameters and locals
+// becoming fresh locals of the caller; bodies are copied as they were before any call was inlined into them
+public class Inliner extends TreeRewriter implements OptimizationPass {
+    private static final int MAX_INLINED_NODES = 30;
+
+    private final Map<MethodDeclaration, ClassDeclaration> owners = new HashMap<>();
+    private final Map<MethodDeclaration, String> rejections = new HashMap<>();
+    private final Map<MethodDeclaration, ArrayList<Statement>> originalBodies = new HashMap<>();
+    private final ArrayList<String> decisions = new ArrayList<>();
+    private ClassDeclaration currentClass;
+    private MethodDeclaration currentMethod;
+    private int inlinedCalls;
+    private int freshLocals;
+
+    @Override
+    public String getName() {
+        return "inlining";
+    }
+
+    @Override
+    public int getLevel() {
+        return 2;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(ClassHierarchyAnalysis.NAME);
+    }
+
+    @Override
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    @Override
+    public int run(Program program) {
+        int inlinedBefore = inlinedCalls;
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+                owners.put(methodDeclaration, classDeclaration);
+                String rejection = rejection(methodDeclaration);
+                if(rejection != null) {
+                    rejections.put(methodDeclaration, rejection);
+                    continue;
+                }
+                ArrayList<Statement> body = new ArrayList<>();
+                for(Statement statement : methodDeclaration.getBody())
+                    body.add(new TreeCopier().copy(statement));
+                originalBodies.put(methodDeclaration, body);
+            }
+        }
+        program.accept(this);
+        return inlinedCalls - inlinedBefore;
+    }
+
+    private String rejection(MethodDeclaration method) {
+        if(!method.getIsFinal())
+            return "redefined in a subclass";
+        NodeCounter nodeCounter = new NodeCounter();
+        method.accept(nodeCounter);
+        if(nodeCounter.getCount() > MAX_INLINED_NODES)
+            return "too large (" + nodeCounter.getCount() + " nodes)";
+        for(VarDeclaration arg : method.getArgs()) {
+            // assigning a list copies it while passing it does not
+            if(arg.getType() instanceof ListType)
+                return "list parameter";
+        }
+        ArrayList<Statement> body = method.getBody();
+        if(!(method.getReturnType() instanceof NullType)) {
+            boolean singleReturn = body.size() == 1 && body.get(0) instanceof ReturnStmt && method.getLocalVars().isEmpty();
+            if(!singleReturn || !isPure(((ReturnStmt) body.get(0)).getReturnedExpr()))
+                return "not a single pure return";
+            return null;
+        }
+        for(VarDeclaration localVar : method.getLocalVars()) {
+            if(defaultValue(localVar.getType()) == null)
+                return "local without a constant initial value";
+        }
+        for(int i = 0; i < body.size(); i++) {
+            Statement statement = body.get(i);
+            boolean lastReturn = i == body.size() - 1 && statement instanceof ReturnStmt;
+            if(!lastReturn && !(statement instanceof AssignmentStmt || statement instanceof PrintStmt || statement instanceof MethodCallStmt))
+                return "not straight line";
+        }
+        return null;
+    }
+
+    // reads locals, constants and fields only, so it can be evaluated anywhere its arguments are known
+    private static boolean isPure(Expression expression) {
+        if(expression instanceof IntValue || expression instanceof BoolValue || expression instanceof StringValue
+                || expression instanceof Identifier || expression instanceof ThisClass)
+            return true;
+        if(expression instanceof BinaryExpression) {
+            BinaryExpression binaryExpression = (BinaryExpression) expression;
+            return binaryExpression.getBinaryOperator() != BinaryOperator.assign
+                    && isPure(binaryExpression.getFirstOperand()) && isPure(binaryExpression.getSecondOperand());
+        }
+        if(expression instanceof UnaryExpression) {
+            UnaryOperator operator = ((UnaryExpression) expression).getOperator();
+            return (operator == UnaryOperator.not || operator == UnaryOperator.minus) && isPure(((UnaryExpression) expression).getOperand());
+        }
+        if(expression instanceof ObjectOrListMemberAccess) {
+            ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) expression;
+            return !(memberAccess.getSymbolTableItem() instanceof MethodSymbolTableItem) && isPure(memberAccess.getInstance());
+        }
+        if(expression instanceof ListAccessByIndex) {
+            ListAccessByIndex listAccessByIndex = (ListAccessByIndex) expression;
+            return isPure(listAccessByIndex.getInstance()) && isPure(listAccessByIndex.getIndex());
+        }
+        return false;
+    }
+
+    // arguments that can be copied into the body any number of times and in any order
+    private static boolean isSimple(Expression expression) {
+        return expression instanceof IntValue || expression instanceof BoolValue || expression instanceof StringValue
+                || expression instanceof Identifier || expression instanceof ThisClass;
+    }
+
+    // a call on null fails before the body runs, so a body inlined for another receiver than this has to read a field
+    // of the receiver before anything else
+    private static boolean readsReceiverFirst(Expression expression) {
+        while (true) {
+            if(expression instanceof BinaryExpression)
+                expression = ((BinaryExpression) expression).getFirstOperand();
+            else if(expression instanceof UnaryExpression)
+                expression = ((UnaryExpression) expression).getOperand();
+            else if(expression instanceof ListAccessByIndex)
+                expression = ((ListAccessByIndex) expression).getInstance();
+            else if(expression instanceof ObjectOrListMemberAccess && !(((ObjectOrListMemberAccess) expression).getInstance() instanceof ThisClass))
+                expression = ((ObjectOrListMemberAccess) expression).getInstance();
+            else
+                return expression instanceof ObjectOrListMemberAccess
+                        && ((ObjectOrListMemberAccess) expression).getSymbolTableItem() instanceof FieldSymbolTableItem;
+        }
+    }
+
+    private static Expression defaultValue(Type type) {
+        Expression value;
+        if(type instanceof IntType)
+            value = new IntValue(0);
+        else if(type instanceof BoolType)
+            value = new BoolValue(false);
+        else if(type instanceof StringType)
+            value = new StringValue("");
+        else
+            return null;
+        value.setType(type);
+        return value;
+    }
+
+    private static MethodDeclaration directTarget(MethodCall methodCall) {
+        if(!(methodCall.getInstance() instanceof ObjectOrListMemberAccess))
+            return null;
+        SymbolTableItem member = ((ObjectOrListMemberAccess) methodCall.getInstance()).getSymbolTableItem();
+        if(!(member instanceof MethodSymbolTableItem))
+            return null;
+        return ((MethodSymbolTableItem) member).getMethodDeclaration();
+    }
+
+    private void decide(MethodCall methodCall, MethodDeclaration target, String rejection) {
+        String callee = owners.get(target).getClassName().getName() + "." + target.getMethodName().getName();
+        String caller = currentClass.getClassName().getName() + "." + currentMethod.getMethodName().getName();
+        if(rejection == null) {
+            inlinedCalls++;
+            decisions.add(String.format("line %d: inlined %s into %s", methodCall.getLine(), callee, caller));
+        }
+        else
+            decisions.add(String.format("line %d: kept call of %s in %s, %s", methodCall.getLine(), callee, caller, rejection));
+    }
+
+    private Map<SymbolTableItem, Expression> parameters(MethodDeclaration target, List<Expression> arguments) {
+        Map<SymbolTableItem, Expression> parameters = new HashMap<>();
+        for(int i = 0; i < arguments.size(); i++)
+            parameters.put(target.getArgs().get(i).getVarName().getSymbolTableItem(), arguments.get(i));
+        return parameters;
+    }
+
+    // slots follow the arguments and the locals the method already has, like NameBinder numbers them
+    private Identifier freshLocal(String name, Type type) {
+        VarDeclaration declaration = new VarDeclaration(new Identifier("inlined$" + (freshLocals++) + "$" + name), type);
+        LocalVariableSymbolTableItem item = new LocalVariableSymbolTableItem(declaration);
+        item.setSlot(1 + currentMethod.getArgs().size() + currentMethod.getLocalVars().size());
+        declaration.getVarName().setSymbolTableItem(item);
+        currentMethod.addLocalVar(declaration);
+        return localUse(declaration);
+    }
+
+    private static Identifier localUse(VarDeclaration declaration) {
+        Identifier use = new Identifier(declaration.getVarName().getName());
+        use.setSymbolTableItem(declaration.getVarName().getSymbolTableItem());
+        use.setType(declaration.getType());
+        return use;
+    }
+
+    private AssignmentStmt assignment(Identifier local, Expression value, int line) {
+        Identifier lValue = new TreeCopier().copy(local);
+        AssignmentStmt assignmentStmt = new AssignmentStmt(lValue, value);
+        lValue.setLine(line);
+        value.setLine(line);
+        assignmentStmt.setLine(line);
+        return assignmentStmt;
+    }
+
+    @Override
+    public Node visit(ClassDeclaration classDeclaration) {
+        currentClass = classDeclaration;
+        return super.visit(classDeclaration);
+    }
+
+    @Override
+    public Node visit(MethodDeclaration methodDeclaration) {
+        currentMethod = methodDeclaration;
+        return super.visit(methodDeclaration);
+    }
+
+    @Override
+    public Node visit(MethodCall methodCall) {
+        rewriteCall(methodCall);
+        MethodDeclaration target = directTarget(methodCall);
+        if(target == null || !owners.containsKey(target))
+            return methodCall;
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+        String rejection = rejections.get(target);
+        if(rejection == null && target.getReturnType() instanceof NullType)
+            rejection = "void method used as a value";
+        if(rejection == null && !(receiver instanceof ThisClass || receiver instanceof Identifier))
+            rejection = "receiver is not this or a variable";
+        Expression returned = rejection == null ? ((ReturnStmt) originalBodies.get(target).get(0)).getReturnedExpr() : null;
+        if(rejection == null && !(receiver instanceof ThisClass) && !readsReceiverFirst(returned))
+            rejection = "body does not read the receiver first";
+        if(rejection == null) {
+            for(Expression argument : methodCall.getArgs()) {
+                if(!isSimple(argument))
+                    rejection = "argument is not a variable or a constant";
+            }
+        }
+        decide(methodCall, target, rejection);
+        if(rejection != null)
+            return methodCall;
+        return new TreeCopier(parameters(target, methodCall.getArgs()), receiver).copy(returned);
+    }
+
+    // the arguments are evaluated into the fresh locals in call order, and the locals of the callee start from their
+    // initial values on every inlined run
+    @Override
+    public Node visit(MethodCallStmt methodCallStmt) {
+        MethodCall methodCall = methodCallStmt.getMethodCall();
+        rewriteCall(methodCall);
+        MethodDeclaration target = directTarget(methodCall);
+        if(target == null || !owners.containsKey(target) || !(target.getReturnType() instanceof NullType))
+            return methodCallStmt;
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+        String rejection = rejections.get(target);
+        if(rejection == null && !(receiver instanceof ThisClass))
+            rejection = "statement call is not on this";
+        decide(methodCall, target, rejection);
+        if(rejection != null)
+            return methodCallStmt;
+        int line = methodCallStmt.getLine();
+        BlockStmt inlined = new BlockStmt();
+        inlined.setLine(line);
+        Map<SymbolTableItem, Expression> variables = new HashMap<>();
+        for(int i = 0; i < methodCall.getArgs().size(); i++) {
+            VarDeclaration arg = target.getArgs().get(i);
+            Identifier local = freshLocal(arg.getVarName().getName(), arg.getType());
+            inlined.addStatement(assignment(local, methodCall.getArgs().get(i), line));
+            variables.put(arg.getVarName().getSymbolTableItem(), local);
+        }
+        for(VarDeclaration localVar : target.getLocalVars()) {
+            Identifier local = freshLocal(localVar.getVarName().getName(), localVar.getType());
+            inlined.addStatement(assignment(local, defaultValue(localVar.getType()), line));
+            variables.put(localVar.getVarName().getSymbolTableItem(), local);
+        }
+        TreeCopier copier = new TreeCopier(variables, receiver);
+        for(Statement statement : originalBodies.get(target)) {
+            if(!(statement instanceof ReturnStmt))
+                inlined.addStatement(copier.copy(statement));
+        }
+        return inlined;
+    }
+
+}
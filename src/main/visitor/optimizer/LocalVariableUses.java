@@ -0,0 +1,79 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.expression.BinaryExpression;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.UnaryExpression;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.statement.AssignmentStmt;
+import main.ast.nodes.statement.Statement;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.TreeWalker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// counts the writes of every local variable of a method body and finds the top level statement it first appears in
+public class LocalVariableUses extends TreeWalker {
+    private final Map<SymbolTableItem, Integer> writes = new HashMap<>();
+    private final Map<SymbolTableItem, Integer> firstStatements = new HashMap<>();
+    private int currentStatement;
+
+    public LocalVariableUses(MethodDeclaration methodDeclaration) {
+        for(Statement statement : methodDeclaration.getBody()) {
+            statement.accept(this);
+            currentStatement++;
+        }
+    }
+
+    public int getWrites(SymbolTableItem item) {
+        return writes.getOrDefault(item, 0);
+    }
+
+    public int getFirstStatement(SymbolTableItem item) {
+        return firstStatements.getOrDefault(item, -1);
+    }
+
+    private void write(Expression lValue) {
+        if(lValue instanceof Identifier && ((Identifier) lValue).getSymbolTableItem() != null)
+            writes.merge(((Identifier) lValue).getSymbolTableItem(), 1, Integer::sum);
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        if(identifier.getSymbolTableItem() != null)
+            firstStatements.putIfAbsent(identifier.getSymbolTableItem(), currentStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        write(assignmentStmt.getlValue());
+        return super.visit(assignmentStmt);
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        if(binaryExpression.getBinaryOperator() == BinaryOperator.assign)
+            write(binaryExpression.getFirstOperand());
+        return super.visit(binaryExpression);
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        UnaryOperator operator = unaryExpression.getOperator();
+        if(operator != UnaryOperator.not && operator != UnaryOperator.minus)
+            write(unaryExpression.getOperand());
+        return super.visit(unaryExpression);
+    }
+
+    @Override
+    public Void visit(ForeachStmt foreachStmt) {
+        write(foreachStmt.getVariable());
+        return super.visit(foreachStmt);
+    }
+
+}
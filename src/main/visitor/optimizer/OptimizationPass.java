@@ -0,0 +1,22 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Program;
+
+import java.util.List;
+
+// a rewrite of the type checked tree, registered with the PassManager
+public interface OptimizationPass {
+    String getName();
+
+    // the lowest -O level the pass runs at
+    int getLevel();
+
+    // names of the passes that have to run before this one
+    List<String> getDependencies();
+
+    // returns how many changes the pass made
+    int run(Program program);
+
+    // what the pass did or did not do and why, one line each
+    List<String> getDecisions();
+}
@@ -0,0 +1,113 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Program;
+import main.visitor.codeGenerator.CodeGenerator;
+import main.visitor.codeGenerator.peephole.PeepholeOptimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// runs the tree passes enabled at an optimization level after their dependencies, and sets up the passes the code generator
+// runs over every generated method, recording the time and the number of changes of each pass
+// -O0, the default, only translates, -O1 adds the local optimizations and -O2 everything
+public class PassManager {
+    public static final int MAX_LEVEL = 2;
+    public static final int DEFAULT_LEVEL = 0;
+    public static final String PEEPHOLE = "peephole";
+    public static final String TAIL_CALLS = "tail call elimination";
+    private static final int PEEPHOLE_LEVEL = 1;
+    private static final int TAIL_CALLS_LEVEL = 1;
+
+    private final int level;
+    private final Map<String, OptimizationPass> passes = new LinkedHashMap<>();
+    private final ArrayList<PassStatistics> statistics = new ArrayList<>();
+    private PeepholeOptimizer peepholeOptimizer;
+    private CodeGenerator codeGenerator;
+
+    public PassManager(int level) {
+        if(level < 0 || level > MAX_LEVEL)
+            throw new IllegalArgumentException("Unknown optimization level -O" + level);
+        this.level = level;
+    }
+
+    // the hierarchy first, so calls with a single target are direct before inlining, and inlining before folding, so folding
+    // also simplifies the inlined bodies with the arguments of their call sites; dead code last, once inlined calls and pruned
+    // branches are gone
+    public static PassManager withDefaultPasses(int level) {
+        PassManager passManager = new PassManager(level);
+        passManager.register(new ClassHierarchyAnalysis());
+        passManager.register(new Devirtualizer());
+        passManager.register(new Inliner());
+        passManager.register(new ConstantFolder());
+        passManager.register(new DeadCodeEliminator());
+        return passManager;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    // a pass may only depend on passes registered before it that run at its level as well
+    public void register(OptimizationPass pass) {
+        for(String dependency : pass.getDependencies()) {
+            OptimizationPass required = passes.get(dependency);
+            if(required == null)
+                throw new IllegalStateException(pass.getName() + " depends on unregistered pass " + dependency);
+            if(required.getLevel() > pass.getLevel())
+                throw new IllegalStateException(pass.getName() + " runs at -O" + pass.getLevel() + " but depends on "
+                        + dependency + " which only runs at -O" + required.getLevel());
+        }
+        if(passes.put(pass.getName(), pass) != null)
+            throw new IllegalStateException("pass " + pass.getName() + " registered twice");
+    }
+
+    public boolean isEnabled(String passName) {
+        if(passName.equals(PEEPHOLE))
+            return level >= PEEPHOLE_LEVEL;
+        if(passName.equals(TAIL_CALLS))
+            return level >= TAIL_CALLS_LEVEL;
+        OptimizationPass pass = passes.get(passName);
+        return pass != null && pass.getLevel() <= level;
+    }
+
+    // registration order already puts every pass after its dependencies
+    public void run(Program program) {
+        for(OptimizationPass pass : passes.values()) {
+            if(pass.getLevel() > level)
+                continue;
+            long start = System.nanoTime();
+            int changes = pass.run(program);
+            statistics.add(new PassStatistics(pass.getName(), System.nanoTime() - start, changes, pass.getDecisions()));
+        }
+    }
+
+    public void configure(CodeGenerator codeGenerator) {
+        this.peepholeOptimizer = isEnabled(PEEPHOLE) ? PeepholeOptimizer.withDefaultRules() : null;
+        codeGenerator.setPeepholeOptimizer(this.peepholeOptimizer);
+        codeGenerator.setTailCallElimination(isEnabled(TAIL_CALLS));
+        this.codeGenerator = codeGenerator;
+    }
+
+    // the passes run by the code generator are only known once it has generated every class
+    // tail calls are compiled as they are met and take no time of their own
+    public void collectCodeGenerationStatistics() {
+        if(this.codeGenerator != null && isEnabled(TAIL_CALLS)) {
+            List<String> tailCalls = this.codeGenerator.getTailCalls();
+            statistics.add(new PassStatistics(TAIL_CALLS, 0, tailCalls.size(), tailCalls));
+        }
+        if(this.peepholeOptimizer == null)
+            return;
+        int changes = 0;
+        for(int count : this.peepholeOptimizer.getCounters().values())
+            changes += count;
+        statistics.add(new PassStatistics(PEEPHOLE, this.peepholeOptimizer.getNanos(), changes, Collections.emptyList()));
+    }
+
+    public List<PassStatistics> getStatistics() {
+        return statistics;
+    }
+
+}
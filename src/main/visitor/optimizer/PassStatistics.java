@@ -0,0 +1,33 @@
+package main.visitor.optimizer;
+
+import java.util.List;
+
+public class PassStatistics {
+    private final String name;
+    private final long nanos;
+    private final int changes;
+    private final List<String> decisions;
+
+    public PassStatistics(String name, long nanos, int changes, List<String> decisions) {
+        this.name = name;
+        this.nanos = nanos;
+        this.changes = changes;
+        this.decisions = decisions;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public int getChanges() {
+        return changes;
+    }
+
+    public List<String> getDecisions() {
+        return decisions;
+    }
+}
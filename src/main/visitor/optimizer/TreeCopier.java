@@ -0,0 +1,207 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.symbolTable.items.SymbolTableItem;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+// deep copies statements and expressions with their types and bindings, replacing the variables and the this of a method
+// body by the expressions of a call site; every use gets its own copy of the replacement
+public class TreeCopier extends Visitor<Node> {
+    private final Map<SymbolTableItem, Expression> variables;
+    private final Expression receiver;
+
+    public TreeCopier() {
+        this(new HashMap<>(), null);
+    }
+
+    // a null receiver keeps this
+    public TreeCopier(Map<SymbolTableItem, Expression> variables, Expression receiver) {
+        this.variables = variables;
+        this.receiver = receiver;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <N extends Node> N copy(N node) {
+        if(node == null)
+            return null;
+        return (N) node.accept(this);
+    }
+
+    private ArrayList<Expression> copyAll(ArrayList<Expression> expressions) {
+        ArrayList<Expression> copies = new ArrayList<>();
+        for(Expression expression : expressions)
+            copies.add(copy(expression));
+        return copies;
+    }
+
+    private <N extends Node> N withLine(N copy, Node original) {
+        copy.setLine(original.getLine());
+        return copy;
+    }
+
+    private <E extends Expression> E withType(E copy, Expression original) {
+        copy.setType(original.getType());
+        return withLine(copy, original);
+    }
+
+    private Expression replacement(Expression replacement) {
+        return new TreeCopier().copy(replacement);
+    }
+
+    @Override
+    public Node visit(AssignmentStmt assignmentStmt) {
+        return withLine(new AssignmentStmt(copy(assignmentStmt.getlValue()), copy(assignmentStmt.getrValue())), assignmentStmt);
+    }
+
+    @Override
+    public Node visit(BlockStmt blockStmt) {
+        ArrayList<Statement> statements = new ArrayList<>();
+        for(Statement statement : blockStmt.getStatements())
+            statements.add(copy(statement));
+        return withLine(new BlockStmt(statements), blockStmt);
+    }
+
+    @Override
+    public Node visit(ConditionalStmt conditionalStmt) {
+        ConditionalStmt copy = new ConditionalStmt(copy(conditionalStmt.getCondition()), copy(conditionalStmt.getThenBody()));
+        copy.setElseBody(copy(conditionalStmt.getElseBody()));
+        return withLine(copy, conditionalStmt);
+    }
+
+    @Override
+    public Node visit(MethodCallStmt methodCallStmt) {
+        return withLine(new MethodCallStmt(copy(methodCallStmt.getMethodCall())), methodCallStmt);
+    }
+
+    @Override
+    public Node visit(PrintStmt print) {
+        return withLine(new PrintStmt(copy(print.getArg())), print);
+    }
+
+    @Override
+    public Node visit(ReturnStmt returnStmt) {
+        return withLine(new ReturnStmt(copy(returnStmt.getReturnedExpr())), returnStmt);
+    }
+
+    @Override
+    public Node visit(BreakStmt breakStmt) {
+        return withLine(new BreakStmt(), breakStmt);
+    }
+
+    @Override
+    public Node visit(ContinueStmt continueStmt) {
+        return withLine(new ContinueStmt(), continueStmt);
+    }
+
+    @Override
+    public Node visit(ForeachStmt foreachStmt) {
+        ForeachStmt copy = new ForeachStmt(copy(foreachStmt.getVariable()), copy(foreachStmt.getList()));
+        copy.setBody(copy(foreachStmt.getBody()));
+        return withLine(copy, foreachStmt);
+    }
+
+    @Override
+    public Node visit(ForStmt forStmt) {
+        ForStmt copy = new ForStmt();
+        copy.setInitialize(copy(forStmt.getInitialize()));
+        copy.setCondition(copy(forStmt.getCondition()));
+        copy.setUpdate(copy(forStmt.getUpdate()));
+        copy.setBody(copy(forStmt.getBody()));
+        return withLine(copy, forStmt);
+    }
+
+    @Override
+    public Node visit(BinaryExpression binaryExpression) {
+        return withType(new BinaryExpression(copy(binaryExpression.getFirstOperand()), copy(binaryExpression.getSecondOperand()),
+                binaryExpression.getBinaryOperator()), binaryExpression);
+    }
+
+    @Override
+    public Node visit(UnaryExpression unaryExpression) {
+        return withType(new UnaryExpression(copy(unaryExpression.getOperand()), unaryExpression.getOperator()), unaryExpression);
+    }
+
+    // member names are not expressions and keep their node
+    @Override
+    public Node visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        ObjectOrListMemberAccess copy = new ObjectOrListMemberAccess(copy(objectOrListMemberAccess.getInstance()),
+                objectOrListMemberAccess.getMemberName());
+        copy.setSymbolTableItem(objectOrListMemberAccess.getSymbolTableItem());
+        return withType(copy, objectOrListMemberAccess);
+    }
+
+    @Override
+    public Node visit(Identifier identifier) {
+        Expression replacement = variables.get(identifier.getSymbolTableItem());
+        if(replacement != null)
+            return replacement(replacement);
+        Identifier copy = new Identifier(identifier.getName());
+        copy.setSymbolTableItem(identifier.getSymbolTableItem());
+        return withType(copy, identifier);
+    }
+
+    @Override
+    public Node visit(ListAccessByIndex listAccessByIndex) {
+        return withType(new ListAccessByIndex(copy(listAccessByIndex.getInstance()), copy(listAccessByIndex.getIndex())),
+                listAccessByIndex);
+    }
+
+    @Override
+    public Node visit(MethodCall methodCall) {
+        return withType(new MethodCall(copy(methodCall.getInstance()), copyAll(methodCall.getArgs())), methodCall);
+    }
+
+    @Override
+    public Node visit(NewClassInstance newClassInstance) {
+        return withType(new NewClassInstance(newClassInstance.getClassType(), copyAll(newClassInstance.getArgs())),
+                newClassInstance);
+    }
+
+    @Override
+    public Node visit(ThisClass thisClass) {
+        if(receiver != null)
+            return replacement(receiver);
+        return withType(new ThisClass(), thisClass);
+    }
+
+    @Override
+    public Node visit(ListValue listValue) {
+        return withType(new ListValue(copyAll(listValue.getElements())), listValue);
+    }
+
+    @Override
+    public Node visit(NullValue nullValue) {
+        return withType(new NullValue(), nullValue);
+    }
+
+    @Override
+    public Node visit(IntValue intValue) {
+        return withType(new IntValue(intValue.getConstant()), intValue);
+    }
+
+    @Override
+    public Node visit(BoolValue boolValue) {
+        return withType(new BoolValue(boolValue.getConstant()), boolValue);
+    }
+
+    @Override
+    public Node visit(StringValue stringValue) {
+        return withType(new StringValue(stringValue.getConstant()), stringValue);
+    }
+
+}
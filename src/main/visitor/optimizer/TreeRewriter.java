@@ -0,0 +1,266 @@
+package main.visitor.optimizer;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+
+// rewrites the tree in place: expressions visit to their replacement, statements to their replacement or null when they
+// are removed; subclasses override what they change and call super to keep rewriting the children
+// assigned variables are never replaced, only the expressions inside assigned list and member accesses are rewritten
+public class TreeRewriter extends Visitor<Node> {
+
+    protected Expression rewrite(Expression expression) {
+        return (Expression) expression.accept(this);
+    }
+
+    protected Statement rewrite(Statement statement) {
+        if(statement == null)
+            return null;
+        return (Statement) statement.accept(this);
+    }
+
+    // loop and branch bodies can not be removed, they become empty blocks instead
+    protected Statement rewriteBody(Statement body) {
+        Statement rewritten = rewrite(body);
+        if(rewritten == null && body != null) {
+            rewritten = new BlockStmt();
+            rewritten.setLine(body.getLine());
+        }
+        return rewritten;
+    }
+
+    protected ArrayList<Statement> rewriteStatements(ArrayList<Statement> statements) {
+        ArrayList<Statement> rewritten = new ArrayList<>();
+        for(Statement statement : statements) {
+            Statement replacement = rewrite(statement);
+            if(replacement != null)
+                rewritten.add(replacement);
+        }
+        return rewritten;
+    }
+
+    protected ArrayList<Expression> rewriteAll(ArrayList<Expression> expressions) {
+        expressions.replaceAll(this::rewrite);
+        return expressions;
+    }
+
+    protected Expression rewriteLValue(Expression lValue) {
+        if(lValue instanceof ListAccessByIndex) {
+            ListAccessByIndex listAccessByIndex = (ListAccessByIndex) lValue;
+            listAccessByIndex.setInstance(rewrite(listAccessByIndex.getInstance()));
+            listAccessByIndex.setIndex(rewrite(listAccessByIndex.getIndex()));
+        }
+        else if(lValue instanceof ObjectOrListMemberAccess) {
+            ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) lValue;
+            memberAccess.setInstance(rewrite(memberAccess.getInstance()));
+        }
+        return lValue;
+    }
+
+    protected void rewriteCall(MethodCall methodCall) {
+        methodCall.setInstance(rewrite(methodCall.getInstance()));
+        methodCall.setArgs(rewriteAll(methodCall.getArgs()));
+    }
+
+    @Override
+    public Node visit(Program program) {
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            classDeclaration.accept(this);
+        }
+        return program;
+    }
+
+    @Override
+    public Node visit(ClassDeclaration classDeclaration) {
+        if(classDeclaration.getConstructor() != null) {
+            classDeclaration.getConstructor().accept(this);
+        }
+        for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+            methodDeclaration.accept(this);
+        }
+        return classDeclaration;
+    }
+
+    @Override
+    public Node visit(ConstructorDeclaration constructorDeclaration) {
+        return this.visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    @Override
+    public Node visit(MethodDeclaration methodDeclaration) {
+        methodDeclaration.setBody(rewriteStatements(methodDeclaration.getBody()));
+        return methodDeclaration;
+    }
+
+    @Override
+    public Node visit(AssignmentStmt assignmentStmt) {
+        assignmentStmt.setlValue(rewriteLValue(assignmentStmt.getlValue()));
+        assignmentStmt.setrValue(rewrite(assignmentStmt.getrValue()));
+        return assignmentStmt;
+    }
+
+    @Override
+    public Node visit(BlockStmt blockStmt) {
+        blockStmt.setStatements(rewriteStatements(blockStmt.getStatements()));
+        return blockStmt;
+    }
+
+    @Override
+    public Node visit(ConditionalStmt conditionalStmt) {
+        conditionalStmt.setCondition(rewrite(conditionalStmt.getCondition()));
+        conditionalStmt.setThenBody(rewriteBody(conditionalStmt.getThenBody()));
+        conditionalStmt.setElseBody(rewrite(conditionalStmt.getElseBody()));
+        return conditionalStmt;
+    }
+
+    @Override
+    public Node visit(MethodCallStmt methodCallStmt) {
+        rewriteCall(methodCallStmt.getMethodCall());
+        return methodCallStmt;
+    }
+
+    @Override
+    public Node visit(PrintStmt print) {
+        print.setArg(rewrite(print.getArg()));
+        return print;
+    }
+
+    @Override
+    public Node visit(ReturnStmt returnStmt) {
+        returnStmt.setReturnedExpr(rewrite(returnStmt.getReturnedExpr()));
+        return returnStmt;
+    }
+
+    @Override
+    public Node visit(BreakStmt breakStmt) {
+        return breakStmt;
+    }
+
+    @Override
+    public Node visit(ContinueStmt continueStmt) {
+        return continueStmt;
+    }
+
+    @Override
+    public Node visit(ForeachStmt foreachStmt) {
+        foreachStmt.setList(rewrite(foreachStmt.getList()));
+        foreachStmt.setBody(rewriteBody(foreachStmt.getBody()));
+        return foreachStmt;
+    }
+
+    // the initialization and the update stay assignments
+    @Override
+    public Node visit(ForStmt forStmt) {
+        if(forStmt.getInitialize() != null) {
+            forStmt.getInitialize().accept(this);
+        }
+        if(forStmt.getCondition() != null) {
+            forStmt.setCondition(rewrite(forStmt.getCondition()));
+        }
+        if(forStmt.getUpdate() != null) {
+            forStmt.getUpdate().accept(this);
+        }
+        forStmt.setBody(rewriteBody(forStmt.getBody()));
+        return forStmt;
+    }
+
+    @Override
+    public Node visit(BinaryExpression binaryExpression) {
+        if(binaryExpression.getBinaryOperator() == BinaryOperator.assign)
+            binaryExpression.setFirstOperand(rewriteLValue(binaryExpression.getFirstOperand()));
+        else
+            binaryExpression.setFirstOperand(rewrite(binaryExpression.getFirstOperand()));
+        binaryExpression.setSecondOperand(rewrite(binaryExpression.getSecondOperand()));
+        return binaryExpression;
+    }
+
+    @Override
+    public Node visit(UnaryExpression unaryExpression) {
+        UnaryOperator operator = unaryExpression.getOperator();
+        if(operator == UnaryOperator.not || operator == UnaryOperator.minus)
+            unaryExpression.setOperand(rewrite(unaryExpression.getOperand()));
+        else
+            unaryExpression.setOperand(rewriteLValue(unaryExpression.getOperand()));
+        return unaryExpression;
+    }
+
+    @Override
+    public Node visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        objectOrListMemberAccess.setInstance(rewrite(objectOrListMemberAccess.getInstance()));
+        return objectOrListMemberAccess;
+    }
+
+    @Override
+    public Node visit(Identifier identifier) {
+        return identifier;
+    }
+
+    @Override
+    public Node visit(ListAccessByIndex listAccessByIndex) {
+        listAccessByIndex.setInstance(rewrite(listAccessByIndex.getInstance()));
+        listAccessByIndex.setIndex(rewrite(listAccessByIndex.getIndex()));
+        return listAccessByIndex;
+    }
+
+    @Override
+    public Node visit(MethodCall methodCall) {
+        rewriteCall(methodCall);
+        return methodCall;
+    }
+
+    @Override
+    public Node visit(NewClassInstance newClassInstance) {
+        newClassInstance.setArgs(rewriteAll(newClassInstance.getArgs()));
+        return newClassInstance;
+    }
+
+    @Override
+    public Node visit(ThisClass thisClass) {
+        return thisClass;
+    }
+
+    @Override
+    public Node visit(ListValue listValue) {
+        listValue.setElements(rewriteAll(listValue.getElements()));
+        return listValue;
+    }
+
+    @Override
+    public Node visit(NullValue nullValue) {
+        return nullValue;
+    }
+
+    @Override
+    public Node visit(IntValue intValue) {
+        return intValue;
+    }
+
+    @Override
+    public Node visit(BoolValue boolValue) {
+        return boolValue;
+    }
+
+    @Override
+    public Node visit(StringValue stringValue) {
+        return stringValue;
+    }
+
+}
@@ -189,8 +189,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         return isLvalue;
     }
 
-    @Override
-    public Type visit(BinaryExpression binaryExpression) {
+    private Type typeOf(BinaryExpression binaryExpression) {
         this.seenNoneLvalue = true;
         BinaryOperator operator = binaryExpression.getBinaryOperator();
         Type firstType = binaryExpression.getFirstOperand().accept(this);
@@ -291,8 +290,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         return new NoType();
     }
 
-    @Override
-    public Type visit(UnaryExpression unaryExpression) {
+    private Type typeOf(UnaryExpression unaryExpression) {
         this.seenNoneLvalue = true;
         Type operandType = unaryExpression.getOperand().accept(this);
         UnaryOperator operator = unaryExpression.getOperator();
@@ -333,8 +331,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         }
     }
 
-    @Override
-    public Type visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+    private Type typeOf(ObjectOrListMemberAccess objectOrListMemberAccess) {
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
         Type instanceType = objectOrListMemberAccess.getInstance().accept(this);
         if(objectOrListMemberAccess.getInstance() instanceof ThisClass)
@@ -352,10 +349,12 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             }
             try {
                 FieldSymbolTableItem fieldSymbolTableItem = (FieldSymbolTableItem) classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
+                objectOrListMemberAccess.setSymbolTableItem(fieldSymbolTableItem);
                 return this.refineType(fieldSymbolTableItem.getType());
             } catch (ItemNotFoundException memberNotField) {
                 try {
                     MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + memberName, true);
+                    objectOrListMemberAccess.setSymbolTableItem(methodSymbolTableItem);
                     this.seenNoneLvalue = true;
                     return new FptrType(methodSymbolTableItem.getArgTypes(), methodSymbolTableItem.getReturnType());
                 } catch (ItemNotFoundException memberNotFound) {
@@ -386,24 +385,16 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         }
     }
 
-    @Override
-    public Type visit(Identifier identifier) {
-        try {
-            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + this.currentClass.getClassName().getName(), true);
-            SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
-            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + this.currentMethod.getMethodName().getName(), true);
-            SymbolTable methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
-            LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.getItem(LocalVariableSymbolTableItem.START_KEY + identifier.getName(), true);
-            return this.refineType(localVariableSymbolTableItem.getType());
-        } catch (ItemNotFoundException e) {
+    private Type typeOf(Identifier identifier) {
+        if(!(identifier.getSymbolTableItem() instanceof LocalVariableSymbolTableItem)) {
             VarNotDeclared exception = new VarNotDeclared(identifier.getLine(), identifier.getName());
             identifier.addError(exception);
             return new NoType();
         }
+        return this.refineType(((LocalVariableSymbolTableItem) identifier.getSymbolTableItem()).getType());
     }
 
-    @Override
-    public Type visit(ListAccessByIndex listAccessByIndex) {
+    private Type typeOf(ListAccessByIndex listAccessByIndex) {
         Type instanceType = listAccessByIndex.getInstance().accept(this);
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
         Type indexType = listAccessByIndex.getIndex().accept(this);
@@ -441,8 +432,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         return new NoType();
     }
 
-    @Override
-    public Type visit(MethodCall methodCall) {
+    private Type typeOf(MethodCall methodCall) {
         this.seenNoneLvalue = true;
         Type instanceType = methodCall.getInstance().accept(this);
         boolean prevIsInMethodCallStmt = this.isInMethodCallStmt;
@@ -482,8 +472,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         }
     }
 
-    @Override
-    public Type visit(NewClassInstance newClassInstance) {
+    private Type typeOf(NewClassInstance newClassInstance) {
         this.seenNoneLvalue = true;
         String className = newClassInstance.getClassType().getClassName().getName();
         ArrayList<Type> newInstanceTypes = new ArrayList<>();
@@ -520,14 +509,12 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         }
     }
 
-    @Override
-    public Type visit(ThisClass thisClass) {
+    private Type typeOf(ThisClass thisClass) {
         this.seenNoneLvalue = true;
         return new ClassType(currentClass.getClassName());
     }
 
-    @Override
-    public Type visit(ListValue listValue) {
+    private Type typeOf(ListValue listValue) {
         this.seenNoneLvalue = true;
         ArrayList<ListNameType> types = new ArrayList<>();
         for(Expression element : listValue.getElements()) {
@@ -537,27 +524,94 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         return new ListType(types);
     }
 
-    @Override
-    public Type visit(NullValue nullValue) {
+    private Type typeOf(NullValue nullValue) {
         this.seenNoneLvalue = true;
         return new NullType();
     }
 
-    @Override
-    public Type visit(IntValue intValue) {
+    private Type typeOf(IntValue intValue) {
         this.seenNoneLvalue = true;
         return new IntType();
     }
 
-    @Override
-    public Type visit(BoolValue boolValue) {
+    private Type typeOf(BoolValue boolValue) {
         this.seenNoneLvalue = true;
         return new BoolType();
     }
 
-    @Override
-    public Type visit(StringValue stringValue) {
+    private Type typeOf(StringValue stringValue) {
         this.seenNoneLvalue = true;
         return new StringType();
     }
+
+    // resolved types are stored on the nodes so later passes read them with getType() instead of re-typing subtrees
+    private Type cacheType(Expression expression, Type type) {
+        expression.setType(type);
+        return type;
+    }
+
+    @Override
+    public Type visit(BinaryExpression binaryExpression) {
+        return cacheType(binaryExpression, typeOf(binaryExpression));
+    }
+
+    @Override
+    public Type visit(UnaryExpression unaryExpression) {
+        return cacheType(unaryExpression, typeOf(unaryExpression));
+    }
+
+    @Override
+    public Type visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        return cacheType(objectOrListMemberAccess, typeOf(objectOrListMemberAccess));
+    }
+
+    @Override
+    public Type visit(Identifier identifier) {
+        return cacheType(identifier, typeOf(identifier));
+    }
+
+    @Override
+    public Type visit(ListAccessByIndex listAccessByIndex) {
+        return cacheType(listAccessByIndex, typeOf(listAccessByIndex));
+    }
+
+    @Override
+    public Type visit(MethodCall methodCall) {
+        return cacheType(methodCall, typeOf(methodCall));
+    }
+
+    @Override
+    public Type visit(NewClassInstance newClassInstance) {
+        return cacheType(newClassInstance, typeOf(newClassInstance));
+    }
+
+    @Override
+    public Type visit(ThisClass thisClass) {
+        return cacheType(thisClass, typeOf(thisClass));
+    }
+
+    @Override
+    public Type visit(ListValue listValue) {
+        return cacheType(listValue, typeOf(listValue));
+    }
+
+    @Override
+    public Type visit(NullValue nullValue) {
+        return cacheType(nullValue, typeOf(nullValue));
+    }
+
+    @Override
+    public Type visit(IntValue intValue) {
+        return cacheType(intValue, typeOf(intValue));
+    }
+
+    @Override
+    public Type visit(BoolValue boolValue) {
+        return cacheType(boolValue, typeOf(boolValue));
+    }
+
+    @Override
+    public Type visit(StringValue stringValue) {
+        return cacheType(stringValue, typeOf(stringValue));
+    }
 }
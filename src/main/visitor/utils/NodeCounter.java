@@ -0,0 +1,198 @@
+package main.visitor.utils;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.visitor.TreeWalker;
+
+// counts the declarations, statements and expressions under a node
+public class NodeCounter extends TreeWalker {
+    private int count = 0;
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Void visit(Program program) {
+        count++;
+        return super.visit(program);
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        count++;
+        return super.visit(classDeclaration);
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        count++;
+        return super.visit(methodDeclaration);
+    }
+
+    @Override
+    public Void visit(FieldDeclaration fieldDeclaration) {
+        count++;
+        return super.visit(fieldDeclaration);
+    }
+
+    @Override
+    public Void visit(VarDeclaration varDeclaration) {
+        count++;
+        return super.visit(varDeclaration);
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        count++;
+        return super.visit(assignmentStmt);
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        count++;
+        return super.visit(blockStmt);
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        count++;
+        return super.visit(conditionalStmt);
+    }
+
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        count++;
+        return super.visit(methodCallStmt);
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        count++;
+        return super.visit(print);
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        count++;
+        return super.visit(returnStmt);
+    }
+
+    @Override
+    public Void visit(BreakStmt breakStmt) {
+        count++;
+        return super.visit(breakStmt);
+    }
+
+    @Override
+    public Void visit(ContinueStmt continueStmt) {
+        count++;
+        return super.visit(continueStmt);
+    }
+
+    @Override
+    public Void visit(ForeachStmt foreachStmt) {
+        count++;
+        return super.visit(foreachStmt);
+    }
+
+    @Override
+    public Void visit(ForStmt forStmt) {
+        count++;
+        return super.visit(forStmt);
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        count++;
+        return super.visit(binaryExpression);
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        count++;
+        return super.visit(unaryExpression);
+    }
+
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        count++;
+        return super.visit(objectOrListMemberAccess);
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        count++;
+        return super.visit(identifier);
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        count++;
+        return super.visit(listAccessByIndex);
+    }
+
+    @Override
+    public Void visit(MethodCall methodCall) {
+        count++;
+        return super.visit(methodCall);
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        count++;
+        return super.visit(newClassInstance);
+    }
+
+    @Override
+    public Void visit(ThisClass thisClass) {
+        count++;
+        return super.visit(thisClass);
+    }
+
+    @Override
+    public Void visit(ListValue listValue) {
+        count++;
+        return super.visit(listValue);
+    }
+
+    @Override
+    public Void visit(NullValue nullValue) {
+        count++;
+        return super.visit(nullValue);
+    }
+
+    @Override
+    public Void visit(IntValue intValue) {
+        count++;
+        return super.visit(intValue);
+    }
+
+    @Override
+    public Void visit(BoolValue boolValue) {
+        count++;
+        return super.visit(boolValue);
+    }
+
+    @Override
+    public Void visit(StringValue stringValue) {
+        count++;
+        return super.visit(stringValue);
+    }
+
+}
@@ -1,36 +1,55 @@
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 public class Fptr {
     Object instance;
     String methodName;
+    String descriptor;
+    MethodHandle target;
 
-    public Fptr(Object instance, String methodName) {
+    public Fptr(Object instance, String methodName, String descriptor) {
         this.instance = instance;
         this.methodName = methodName;
+        this.descriptor = descriptor;
     }
 
-    public Object invoke(ArrayList<Object> arguments) {
-        int argumentsSize = arguments.size();
-        Class[] argsClasses = new Class[argumentsSize];
-        Object[] argsArray = new Object[argumentsSize];
-        for(int i = 0; i < argumentsSize; i++) {
-            argsClasses[i] = arguments.get(i).getClass();
-            argsArray[i] = arguments.get(i);
+    // the method is looked up once, bound to the instance and adapted to boxed arguments and an Object result
+    private MethodHandle getTarget() {
+        if(this.target == null) {
+            Class<?> instanceClass = this.instance.getClass();
+            try {
+                MethodType methodType = MethodType.fromMethodDescriptorString(this.descriptor, instanceClass.getClassLoader());
+                MethodHandle handle = MethodHandles.publicLookup().findVirtual(instanceClass, this.methodName, methodType);
+                this.target = handle.bindTo(this.instance).asType(methodType.generic());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot resolve " + instanceClass.getName() + "." + this.methodName + this.descriptor, e);
+            }
         }
-        Method objectMethod = null;
-        try {
-            objectMethod = this.instance.getClass().getMethod(this.methodName, argsClasses);
-        } catch (NoSuchMethodException e) { 
-            e.printStackTrace();
-        }
-        try {
-            return objectMethod.invoke(this.instance, argsArray);
-        } catch (IllegalAccessException | InvocationTargetException e) { 
-            e.printStackTrace();
-            System.exit(1);
-        }
-        return null;
+        return this.target;
+    }
+
+    public Object invoke0() throws Throwable {
+        return getTarget().invokeExact();
+    }
+
+    public Object invoke1(Object a) throws Throwable {
+        return getTarget().invokeExact(a);
+    }
+
+    public Object invoke2(Object a, Object b) throws Throwable {
+        return getTarget().invokeExact(a, b);
+    }
+
+    public Object invoke3(Object a, Object b, Object c) throws Throwable {
+        return getTarget().invokeExact(a, b, c);
+    }
+
+    public Object invoke4(Object a, Object b, Object c, Object d) throws Throwable {
+        return getTarget().invokeExact(a, b, c, d);
+    }
+
+    public Object invokeN(Object[] arguments) throws Throwable {
+        return getTarget().invokeWithArguments(arguments);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+
+// inline cache of one call through a function pointer; the generated class keeps the dynamic invoker of its call site in
+// a static final field, so the JIT sees a constant handle and inlines through the cached targets
+public class FptrCallSite extends MutableCallSite {
+    private static final int MAX_CACHED_TARGETS = 4;
+
+    // class literals do not survive the translation to the jasmin files of the runtime, so classes are looked up by name
+    private static final Class<?> FPTR;
+    private static final Class<?> OBJECT;
+    private static final Class<?> OBJECT_ARRAY;
+    private static final MethodHandle INSTANCE;
+    private static final MethodHandle IS_CACHED_TARGET;
+    private static final MethodHandle MISS;
+
+    static {
+        try {
+            FPTR = Class.forName("Fptr");
+            OBJECT = Class.forName("java.lang.Object");
+            OBJECT_ARRAY = Class.forName("[Ljava.lang.Object;");
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            INSTANCE = lookup.findGetter(FPTR, "instance", OBJECT);
+            IS_CACHED_TARGET = lookup.findStatic(lookup.lookupClass(), "isCachedTarget",
+                    MethodType.methodType(Boolean.TYPE, Class.forName("java.lang.Class"), Class.forName("java.lang.String"), FPTR));
+            MISS = lookup.findVirtual(lookup.lookupClass(), "miss",
+                    MethodType.methodType(OBJECT, FPTR, OBJECT_ARRAY));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int arity;
+    private int cachedTargets;
+
+    public FptrCallSite(int arity) {
+        super(callType(arity));
+        this.arity = arity;
+        setTarget(MISS.bindTo(this).asCollector(OBJECT_ARRAY, arity).asType(type()));
+    }
+
+    // (Fptr, Object...) -> Object
+    private static MethodType callType(int arity) {
+        return MethodType.genericMethodType(arity).insertParameterTypes(0, FPTR);
+    }
+
+    private static boolean isCachedTarget(Class<?> instanceClass, String methodName, Fptr fptr) {
+        return fptr.instance.getClass() == instanceClass && fptr.methodName.equals(methodName);
+    }
+
+    // links the receiver class and method of the first call that misses every cached target in front of them,
+    // or gives up and dispatches through the Fptr once the site has seen too many targets
+    private synchronized Object miss(Fptr fptr, Object[] arguments) throws Throwable {
+        Class<?> instanceClass = fptr.instance.getClass();
+        if(this.cachedTargets < MAX_CACHED_TARGETS) {
+            MethodType methodType = MethodType.fromMethodDescriptorString(fptr.descriptor, instanceClass.getClassLoader());
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(instanceClass, fptr.methodName, methodType);
+            MethodHandle target = MethodHandles.filterArguments(handle.asType(methodType.generic().insertParameterTypes(0, OBJECT)), 0, INSTANCE);
+            MethodHandle test = MethodHandles.insertArguments(IS_CACHED_TARGET, 0, instanceClass, fptr.methodName);
+            setTarget(MethodHandles.guardWithTest(test, target, getTarget()));
+            this.cachedTargets++;
+        }
+        else {
+            setTarget(genericDispatch());
+        }
+        return fptr.invokeN(arguments);
+    }
+
+    private MethodHandle genericDispatch() throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if(this.arity <= 4)
+            return lookup.findVirtual(FPTR, "invoke" + this.arity, MethodType.genericMethodType(this.arity));
+        return lookup.findVirtual(FPTR, "invokeN", MethodType.methodType(OBJECT, OBJECT_ARRAY))
+                .asCollector(OBJECT_ARRAY, this.arity);
+    }
+}